@@ -14,11 +14,38 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation: Configuration by configurations.getting
+val jmhAnnotationProcessor: Configuration by configurations.getting
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Runs the benchmarks with the GC profiler, e.g.
+// ./gradlew jmh -Pjmh.includes=ScoreboardBenchmark -Pjmh.threads=1,4,16 -Pjmh.params="boardSize=10,1000;implementation=PACKED_KEY"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.worldcup.benchmark.BenchmarkRunner")
+    args(
+        project.findProperty("jmh.includes") ?: ".*Benchmark.*",
+        project.findProperty("jmh.threads") ?: "",
+        project.findProperty("jmh.params") ?: ""
+    )
+}
@@ -0,0 +1,75 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ingesting a feed message of goals and infraction adjustments spread over a few matches, event by event
+ * and as one batch. The score is per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchScoreBenchmark {
+    private static final int MATCHES = 8;
+    private static final int EVENTS = 400;
+
+    private ScoreManager scoreManager;
+    private final List<ScoreEvent> events = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        MatchManager matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        for (int i = 0; i < MATCHES; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        scoreManager = new ScoreManager(matchManager);
+        // Every goal is taken back, so the scores stay put across invocations
+        for (int i = 0; i < EVENTS; i += 2) {
+            int match = (i / 2) % MATCHES;
+            TeamType teamType = i % 4 == 0 ? TeamType.HOME_TEAM : TeamType.AWAY_TEAM;
+            events.add(ScoreEvent.goal("Home" + match, "Away" + match, teamType));
+            events.add(ScoreEvent.infraction("Home" + match, "Away" + match, teamType));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void eventByEvent() {
+        for (ScoreEvent event : events) {
+            if (event.type() == ScoreEvent.Type.GOAL) {
+                scoreManager.updateScore(event.homeTeam(), event.awayTeam(), event.teamType());
+            } else {
+                scoreManager.adjustScoreForInfraction(event.homeTeam(), event.awayTeam(), event.teamType());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public List<ScoreEvent.Result> batch() {
+        return scoreManager.applyBatch(events);
+    }
+}
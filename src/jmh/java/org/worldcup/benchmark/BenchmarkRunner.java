@@ -0,0 +1,55 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count, with the GC profiler reporting the allocation rate of each benchmark.
+ * <p>
+ * Arguments, all optional:
+ * <ol>
+ *     <li>a regular expression selecting the benchmarks, all of them by default;</li>
+ *     <li>comma-separated thread counts, such as {@code 1,4,16}; by default each benchmark runs on its own thread count;</li>
+ *     <li>parameter overrides separated by semicolons, such as {@code boardSize=10,1000;implementation=PACKED_KEY}.</li>
+ * </ol>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String includes = args.length > 0 && !args[0].isBlank() ? args[0] : ".*Benchmark.*";
+        String threadCounts = args.length > 1 ? args[1].trim() : "";
+        String parameters = args.length > 2 ? args[2].trim() : "";
+        if (threadCounts.isEmpty()) {
+            run(includes, 0, parameters);
+            return;
+        }
+        for (String threadCount : threadCounts.split(",")) {
+            run(includes, Integer.parseInt(threadCount.trim()), parameters);
+        }
+    }
+
+    private static void run(String includes, int threads, String parameters) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(includes)
+                .addProfiler(GCProfiler.class);
+        if (threads > 0) {
+            options.threads(threads);
+        }
+        if (!parameters.isEmpty()) {
+            for (String parameter : parameters.split(";")) {
+                int separator = parameter.indexOf('=');
+                if (separator < 1) {
+                    throw new IllegalArgumentException("Parameter must be name=value[,value...]: " + parameter);
+                }
+                options.param(parameter.substring(0, separator).trim(), parameter.substring(separator + 1).split(","));
+            }
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package org.worldcup.benchmark;
+
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.repository.MappedMatchRepository;
+import org.worldcup.repository.MatchRepository;
+import org.worldcup.repository.PackedKeyMatchRepository;
+import org.worldcup.util.MatchKeyGenerator;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.PackedMatchKeyGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+import org.worldcup.util.TeamRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A scoreboard built on one of the repository and key generator pairs, for the benchmarks to compare.
+ */
+final class Board implements Closeable {
+
+    enum Implementation {
+        /** {@link InMemoryMatchRepository} with {@link SimpleMatchKeyGenerator} */
+        IN_MEMORY,
+        /** {@link PackedKeyMatchRepository} with {@link PackedMatchKeyGenerator} */
+        PACKED_KEY,
+        /** {@link MappedMatchRepository} on a temporary file, with {@link SimpleMatchKeyGenerator} */
+        MAPPED
+    }
+
+    final MatchRepository matchRepository;
+    final MatchManager matchManager;
+    final ScoreManager scoreManager;
+    final MatchSummaryGenerator summaryGenerator;
+    private final Path file;
+
+    Board(Implementation implementation) {
+        MatchKeyGenerator matchKeyGenerator;
+        Path mappedFile = null;
+        try {
+            switch (implementation) {
+                case PACKED_KEY -> {
+                    TeamRegistry teamRegistry = new TeamRegistry();
+                    matchRepository = new PackedKeyMatchRepository(teamRegistry);
+                    matchKeyGenerator = new PackedMatchKeyGenerator(teamRegistry);
+                }
+                case MAPPED -> {
+                    mappedFile = Files.createTempFile("scoreboard-benchmark", ".db");
+                    matchRepository = new MappedMatchRepository(mappedFile);
+                    matchKeyGenerator = new SimpleMatchKeyGenerator();
+                }
+                default -> {
+                    matchRepository = new InMemoryMatchRepository();
+                    matchKeyGenerator = new SimpleMatchKeyGenerator();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file = mappedFile;
+        matchManager = new MatchManager(matchRepository, matchKeyGenerator);
+        scoreManager = new ScoreManager(matchManager);
+        summaryGenerator = new MatchSummaryGenerator(matchRepository);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (matchRepository instanceof Closeable closeable) {
+            closeable.close();
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.codec.SummaryEncoder;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+import org.worldcup.util.SummarySnapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding a summary as text with encoding it in the binary format, into a reused buffer or once per version
+ * for all subscribers. {@link #encodedSize} reports the size of both encodings as secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"100", "10000"})
+    public int liveMatches;
+
+    private SummarySnapshot snapshot;
+    private SummaryEncoder encoder;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        for (int i = 0; i < liveMatches; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            for (int goal = 0; goal < i % 7; goal++) {
+                scoreManager.updateScore("Home" + i, "Away" + i, TeamType.values()[goal % 2]);
+            }
+        }
+        snapshot = new MatchSummaryGenerator(matchRepository).getSnapshot();
+        encoder = new SummaryEncoder();
+        buffer = ByteBuffer.allocateDirect(SummaryEncoder.maxSummarySize(liveMatches));
+    }
+
+    @Benchmark
+    public byte[] textSummary() {
+        return String.join("\n", snapshot.lines()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int binarySummary() {
+        buffer.clear();
+        encoder.encodeSummary(snapshot, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public ByteBuffer sharedBinarySummary() {
+        return encoder.encodeShared(snapshot);
+    }
+
+    @Benchmark
+    public void encodedSize(EncodedSize size) {
+        size.textBytes = textSummary().length;
+        size.binaryBytes = binarySummary();
+    }
+
+    /**
+     * The sizes of the last encodings, in bytes.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long textBytes;
+        public long binaryBytes;
+    }
+}
@@ -0,0 +1,95 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.ingest.IngestPipeline;
+import org.worldcup.ingest.WaitStrategy;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares four feed threads scoring directly through the {@link ScoreManager} with the same threads publishing to an
+ * {@link IngestPipeline} and waiting for each goal to be applied. Sample time mode reports the latency percentiles,
+ * throughput mode the goals per microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class IngestBenchmark {
+
+    @Param({"BUSY_SPIN", "YIELD", "PARK"})
+    public WaitStrategy waitStrategy;
+
+    private final AtomicInteger matchIds = new AtomicInteger();
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private IngestPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        pipeline = new IngestPipeline(matchManager, 1024, waitStrategy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    public void direct(OwnMatch match) {
+        scoreManager.updateScore(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+    }
+
+    @Benchmark
+    public ScoreEvent.Result pipeline(OwnMatch match) {
+        pipeline.applyScore(match.goal);
+        return pipeline.applyScore(match.infraction).join();
+    }
+
+    /**
+     * A match that only one benchmark thread scores in.
+     */
+    @State(Scope.Thread)
+    public static class OwnMatch {
+        private String homeTeam;
+        private String awayTeam;
+        private ScoreEvent goal;
+        private ScoreEvent infraction;
+
+        @Setup
+        public void setUp(IngestBenchmark benchmark) {
+            int matchId = benchmark.matchIds.incrementAndGet();
+            homeTeam = "Home" + matchId;
+            awayTeam = "Away" + matchId;
+            goal = ScoreEvent.goal(homeTeam, awayTeam, TeamType.HOME_TEAM);
+            infraction = ScoreEvent.infraction(homeTeam, awayTeam, TeamType.HOME_TEAM);
+            benchmark.matchManager.startMatch(homeTeam, awayTeam);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.journal.MatchJournal;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures durable score changes per second against the journal batch size.
+ * Each invocation makes a run of goals and infraction adjustments and waits until the journal has forced them to disk,
+ * so the score counts only changes that are durable. The threaded variant shows how concurrent writers share one force.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int CHANGES_PER_INVOCATION = 128;
+
+    @Param({"1", "8", "64", "512"})
+    public int batchSize;
+
+    private final AtomicInteger matchIds = new AtomicInteger();
+
+    private Path file;
+    private MatchJournal journal;
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("scoreboard", ".journal");
+        Files.delete(file);
+        journal = new MatchJournal(file, batchSize, Duration.ofMillis(1));
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        matchManager.addListener(journal);
+        scoreManager = new ScoreManager(matchManager);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHANGES_PER_INVOCATION)
+    public void durableChanges(OwnMatch match) {
+        makeChanges(match);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(CHANGES_PER_INVOCATION)
+    public void durableChangesOnFourThreads(OwnMatch match) {
+        makeChanges(match);
+    }
+
+    private void makeChanges(OwnMatch match) {
+        for (int i = 0; i < CHANGES_PER_INVOCATION; i += 2) {
+            scoreManager.updateScore(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+            scoreManager.adjustScoreForInfraction(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+        }
+        journal.sync().join();
+    }
+
+    /**
+     * A match that only one benchmark thread scores in.
+     */
+    @State(Scope.Thread)
+    public static class OwnMatch {
+        private String homeTeam;
+        private String awayTeam;
+
+        @Setup
+        public void setUp(JournalBenchmark benchmark) {
+            int matchId = benchmark.matchIds.incrementAndGet();
+            homeTeam = "Home" + matchId;
+            awayTeam = "Away" + matchId;
+            benchmark.matchManager.startMatch(homeTeam, awayTeam);
+        }
+    }
+}
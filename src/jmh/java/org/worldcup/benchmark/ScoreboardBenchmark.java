@@ -0,0 +1,139 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures every scoreboard operation across board sizes and repository implementations.
+ * Run it through {@link BenchmarkRunner} to repeat it for several thread counts and to report the allocation rate.
+ * <p>
+ * The board is rebuilt before each iteration, so goals never pile up past the maximum score. Infraction adjustments
+ * start from a high away score, so they always take a goal away instead of hitting the zero floor. A match is moved to
+ * its own place before each summary read, so the summary is captured every time instead of read from the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScoreboardBenchmark {
+    private static final int AWAY_SCORE_HEADROOM = Score.MAX_SCORE / 2;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int boardSize;
+
+    @Param({"IN_MEMORY", "PACKED_KEY", "MAPPED"})
+    public Board.Implementation implementation;
+
+    private Board board;
+    private String[] homeTeams;
+    private String[] awayTeams;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        board = new Board(implementation);
+        homeTeams = new String[boardSize];
+        awayTeams = new String[boardSize];
+        for (int i = 0; i < boardSize; i++) {
+            homeTeams[i] = "Home" + i;
+            awayTeams[i] = "Away" + i;
+            board.matchManager.startMatch(homeTeams[i], awayTeams[i]);
+            Match match = board.matchManager.findMatch(homeTeams[i], awayTeams[i]);
+            match.score().updateState(state -> Score.withScore(state, TeamType.AWAY_TEAM, AWAY_SCORE_HEADROOM));
+            board.matchRepository.reorderMatch(match);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        board.close();
+    }
+
+    @Benchmark
+    public void startAndFinishMatch(Cursor cursor) {
+        board.matchManager.startMatch(cursor.homeTeam, cursor.awayTeam);
+        board.matchManager.finishMatch(cursor.homeTeam, cursor.awayTeam);
+    }
+
+    @Benchmark
+    public void updateScore(Cursor cursor) {
+        int match = cursor.nextMatch(boardSize);
+        board.scoreManager.updateScore(homeTeams[match], awayTeams[match], TeamType.HOME_TEAM);
+    }
+
+    @Benchmark
+    public void adjustScoreForInfraction(Cursor cursor) {
+        int match = cursor.nextMatch(boardSize);
+        board.scoreManager.adjustScoreForInfraction(homeTeams[match], awayTeams[match], TeamType.AWAY_TEAM);
+    }
+
+    @Benchmark
+    public Match findMatch(Cursor cursor) {
+        int match = cursor.nextMatch(boardSize);
+        return board.matchManager.findMatch(homeTeams[match], awayTeams[match]);
+    }
+
+    @Benchmark
+    public List<String> getSummary(ChangedSummary changedSummary) {
+        return board.summaryGenerator.getSummary();
+    }
+
+    @Benchmark
+    public List<String> updateScoreThenGetSummary(Cursor cursor) {
+        updateScore(cursor);
+        return board.summaryGenerator.getSummary();
+    }
+
+    /**
+     * Changes the summary version without changing the order, before each call of the benchmark that uses it.
+     */
+    @State(Scope.Thread)
+    public static class ChangedSummary {
+
+        @Setup(Level.Invocation)
+        public void reorderMatch(ScoreboardBenchmark benchmark, Cursor cursor) {
+            int match = cursor.nextMatch(benchmark.boardSize);
+            Board board = benchmark.board;
+            Match changed = board.matchManager.findMatch(benchmark.homeTeams[match], benchmark.awayTeams[match]);
+            board.matchRepository.reorderMatch(changed);
+        }
+    }
+
+    /**
+     * Walks the board from a different match on each thread, and holds a fixture no other thread starts.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+        private final int threadId = THREAD_IDS.incrementAndGet();
+        private final String homeTeam = "BenchHome" + threadId;
+        private final String awayTeam = "BenchAway" + threadId;
+        private int next = threadId * 7919;
+
+        int nextMatch(int boardSize) {
+            next = next + 1 == Integer.MAX_VALUE ? 0 : next + 1;
+            return next % boardSize;
+        }
+    }
+}
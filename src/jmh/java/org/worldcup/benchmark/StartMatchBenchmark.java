@@ -0,0 +1,72 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the latency of starting a match while the scoreboard already holds a number of live matches.
+ * The started match is finished again in the same invocation, so the board size stays constant.
+ * The threaded variant starts disjoint fixtures from several threads at once, to show that starts do not serialize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartMatchBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int liveMatches;
+
+    private MatchManager matchManager;
+
+    @Setup
+    public void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        for (int i = 0; i < liveMatches; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+    }
+
+    @Benchmark
+    public void startAndFinishMatch() {
+        matchManager.startMatch("BenchHome", "BenchAway");
+        matchManager.finishMatch("BenchHome", "BenchAway");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void startAndFinishDisjointMatches(Fixture fixture) {
+        matchManager.startMatch(fixture.homeTeam, fixture.awayTeam);
+        matchManager.finishMatch(fixture.homeTeam, fixture.awayTeam);
+    }
+
+    /**
+     * A fixture whose teams are only used by one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Fixture {
+        private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+        private final int threadId = THREAD_IDS.incrementAndGet();
+        private final String homeTeam = "BenchHome" + threadId;
+        private final String awayTeam = "BenchAway" + threadId;
+    }
+}
@@ -0,0 +1,71 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the summary right after a goal, so no cached snapshot can be reused.
+ * Compare the full summary with the top ten to see what consumers showing only the top of the board save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SummaryBenchmark {
+
+    @Param({"100", "10000"})
+    public int liveMatches;
+
+    private ScoreManager scoreManager;
+    private MatchSummaryGenerator summaryGenerator;
+    private int nextMatch;
+
+    @Setup
+    public void setUp() {
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        for (int i = 0; i < liveMatches; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        scoreManager = new ScoreManager(matchManager);
+        summaryGenerator = new MatchSummaryGenerator(matchRepository);
+    }
+
+    @Benchmark
+    public List<String> goalThenFullSummary() {
+        scoreGoalAndTakeItBack();
+        return summaryGenerator.getSummary();
+    }
+
+    @Benchmark
+    public List<String> goalThenTopTenSummary() {
+        scoreGoalAndTakeItBack();
+        return summaryGenerator.getTopSummary(10);
+    }
+
+    private void scoreGoalAndTakeItBack() {
+        int match = nextMatch++ % liveMatches;
+        scoreManager.updateScore("Home" + match, "Away" + match, TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction("Home" + match, "Away" + match, TeamType.HOME_TEAM);
+    }
+}
@@ -0,0 +1,75 @@
+package org.worldcup.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures goal ingestion when every thread scores in its own match.
+ * Compare the single-threaded and the threaded results to see how goal processing scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UpdateScoreBenchmark {
+
+    private final AtomicInteger matchIds = new AtomicInteger();
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+
+    @Setup
+    public void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+    }
+
+    @Benchmark
+    public void goalAndInfraction(OwnMatch match) {
+        scoreManager.updateScore(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void goalAndInfractionOnFourThreads(OwnMatch match) {
+        scoreManager.updateScore(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction(match.homeTeam, match.awayTeam, TeamType.HOME_TEAM);
+    }
+
+    /**
+     * A match that only one benchmark thread scores in.
+     */
+    @State(Scope.Thread)
+    public static class OwnMatch {
+        private String homeTeam;
+        private String awayTeam;
+
+        @Setup
+        public void setUp(UpdateScoreBenchmark benchmark) {
+            int matchId = benchmark.matchIds.incrementAndGet();
+            homeTeam = "Home" + matchId;
+            awayTeam = "Away" + matchId;
+            benchmark.matchManager.startMatch(homeTeam, awayTeam);
+        }
+    }
+}
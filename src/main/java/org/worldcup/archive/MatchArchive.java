@@ -0,0 +1,299 @@
+package org.worldcup.archive;
+
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.util.TeamRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the results of finished matches, column by column in primitive arrays.
+ * Register it with {@link MatchManager#addListener(MatchEventListener)} to archive every match as it finishes.
+ * <p>
+ * Each archived match is a row of team IDs, final scores and start sequence, about 24 bytes, stored in fixed-size
+ * chunks that are added as the archive grows, so nothing is ever copied and no object is kept per match. The finish
+ * sequence of a match is its row number: matches are archived in the order they finished.
+ * Scans walk the columns chunk by chunk and allocate nothing per row.
+ * <p>
+ * Archiving takes a lock that only other finishing matches compete for. Scans do not lock: they see every match
+ * archived before they started, and may or may not see the ones archived while they run.
+ */
+public class MatchArchive implements MatchEventListener {
+    static final int CHUNK_SIZE = 1 << 14;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final TeamRegistry teamRegistry;
+    private volatile Chunk[] chunks = new Chunk[16];
+    private volatile int size;
+
+    /**
+     * Creates an archive with its own team IDs.
+     */
+    public MatchArchive() {
+        this(new TeamRegistry());
+    }
+
+    /**
+     * Creates an archive that stores the IDs of a registry, for example the one of a {@code PackedMatchKeyGenerator}.
+     * Team names are then matched ignoring case, like the registry does.
+     *
+     * @param teamRegistry the registry of the team IDs
+     */
+    public MatchArchive(TeamRegistry teamRegistry) {
+        this.teamRegistry = teamRegistry;
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        archive(match);
+    }
+
+    /**
+     * Archives the result of a match.
+     *
+     * @param match the finished match
+     * @return the row of the match, which is also its finish sequence
+     */
+    public int archive(Match match) {
+        long scoreState = match.score().getState();
+        return archive(match.homeTeam(), match.awayTeam(), Score.homeScore(scoreState), Score.awayScore(scoreState),
+                match.startSequence());
+    }
+
+    /**
+     * Archives the result of a match.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param homeScore the final score of the home team
+     * @param awayScore the final score of the away team
+     * @param startSequence the start sequence of the match
+     * @return the row of the match, which is also its finish sequence
+     */
+    public int archive(String homeTeam, String awayTeam, int homeScore, int awayScore, long startSequence) {
+        int homeTeamId = teamRegistry.register(homeTeam);
+        int awayTeamId = teamRegistry.register(awayTeam);
+        synchronized (this) {
+            int row = size;
+            if (row == Integer.MAX_VALUE) {
+                throw new IllegalStateException("The archive is full");
+            }
+            Chunk chunk = chunkForAppend(row);
+            int offset = row & CHUNK_MASK;
+            chunk.homeTeams[offset] = homeTeamId;
+            chunk.awayTeams[offset] = awayTeamId;
+            chunk.homeScores[offset] = homeScore;
+            chunk.awayScores[offset] = awayScore;
+            chunk.startSequences[offset] = startSequence;
+            // Publishes the row to the scans, which read the size first
+            size = row + 1;
+            return row;
+        }
+    }
+
+    /**
+     * @return the number of archived matches
+     */
+    public int size() {
+        return size;
+    }
+
+    public String homeTeam(int row) {
+        return teamRegistry.nameOf(chunkOf(row).homeTeams[row & CHUNK_MASK]);
+    }
+
+    public String awayTeam(int row) {
+        return teamRegistry.nameOf(chunkOf(row).awayTeams[row & CHUNK_MASK]);
+    }
+
+    public int homeScore(int row) {
+        return chunkOf(row).homeScores[row & CHUNK_MASK];
+    }
+
+    public int awayScore(int row) {
+        return chunkOf(row).awayScores[row & CHUNK_MASK];
+    }
+
+    public long startSequence(int row) {
+        return chunkOf(row).startSequences[row & CHUNK_MASK];
+    }
+
+    /**
+     * @return the total number of goals scored in the archived matches
+     */
+    public long totalGoals() {
+        int rowCount = size;
+        Chunk[] chunks = this.chunks;
+        long goals = 0;
+        for (int chunkIndex = 0; chunkIndex << CHUNK_SHIFT < rowCount; chunkIndex++) {
+            Chunk chunk = chunks[chunkIndex];
+            int rows = Math.min(CHUNK_SIZE, rowCount - (chunkIndex << CHUNK_SHIFT));
+            for (int offset = 0; offset < rows; offset++) {
+                goals += chunk.homeScores[offset] + chunk.awayScores[offset];
+            }
+        }
+        return goals;
+    }
+
+    /**
+     * Adds up the results of a team over the archived matches.
+     *
+     * @param team the name of the team
+     * @return the results, all zero if the team has not played
+     */
+    public TeamResults resultsOf(String team) {
+        int teamId = teamRegistry.findId(team);
+        int rowCount = size;
+        Chunk[] chunks = this.chunks;
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long goalsFor = 0;
+        long goalsAgainst = 0;
+        for (int chunkIndex = 0; teamId != TeamRegistry.UNKNOWN_TEAM && chunkIndex << CHUNK_SHIFT < rowCount; chunkIndex++) {
+            Chunk chunk = chunks[chunkIndex];
+            int rows = Math.min(CHUNK_SIZE, rowCount - (chunkIndex << CHUNK_SHIFT));
+            for (int offset = 0; offset < rows; offset++) {
+                int scored;
+                int conceded;
+                if (chunk.homeTeams[offset] == teamId) {
+                    scored = chunk.homeScores[offset];
+                    conceded = chunk.awayScores[offset];
+                } else if (chunk.awayTeams[offset] == teamId) {
+                    scored = chunk.awayScores[offset];
+                    conceded = chunk.homeScores[offset];
+                } else {
+                    continue;
+                }
+                goalsFor += scored;
+                goalsAgainst += conceded;
+                if (scored > conceded) {
+                    wins++;
+                } else if (scored == conceded) {
+                    draws++;
+                } else {
+                    losses++;
+                }
+            }
+        }
+        return new TeamResults(wins, draws, losses, goalsFor, goalsAgainst);
+    }
+
+    /**
+     * Finds the archived matches between two teams, whichever was at home.
+     *
+     * @param team the name of one team
+     * @param otherTeam the name of the other team
+     * @return the rows of the matches, in the order they finished
+     */
+    public int[] matchesBetween(String team, String otherTeam) {
+        int teamId = teamRegistry.findId(team);
+        int otherTeamId = teamRegistry.findId(otherTeam);
+        if (teamId == TeamRegistry.UNKNOWN_TEAM || otherTeamId == TeamRegistry.UNKNOWN_TEAM) {
+            return new int[0];
+        }
+        int rowCount = size;
+        Chunk[] chunks = this.chunks;
+        int[] rows = new int[16];
+        int found = 0;
+        for (int chunkIndex = 0; chunkIndex << CHUNK_SHIFT < rowCount; chunkIndex++) {
+            Chunk chunk = chunks[chunkIndex];
+            int chunkRows = Math.min(CHUNK_SIZE, rowCount - (chunkIndex << CHUNK_SHIFT));
+            for (int offset = 0; offset < chunkRows; offset++) {
+                int homeTeamId = chunk.homeTeams[offset];
+                int awayTeamId = chunk.awayTeams[offset];
+                if ((homeTeamId == teamId && awayTeamId == otherTeamId) || (homeTeamId == otherTeamId && awayTeamId == teamId)) {
+                    if (found == rows.length) {
+                        rows = Arrays.copyOf(rows, found * 2);
+                    }
+                    rows[found++] = (chunkIndex << CHUNK_SHIFT) | offset;
+                }
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    /**
+     * Adds up the archived matches between two teams.
+     *
+     * @param team the name of one team
+     * @param otherTeam the name of the other team
+     * @return the results of the first team against the other
+     */
+    public TeamResults headToHead(String team, String otherTeam) {
+        int teamId = teamRegistry.findId(team);
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long goalsFor = 0;
+        long goalsAgainst = 0;
+        for (int row : matchesBetween(team, otherTeam)) {
+            Chunk chunk = chunkOf(row);
+            int offset = row & CHUNK_MASK;
+            boolean home = chunk.homeTeams[offset] == teamId;
+            int scored = home ? chunk.homeScores[offset] : chunk.awayScores[offset];
+            int conceded = home ? chunk.awayScores[offset] : chunk.homeScores[offset];
+            goalsFor += scored;
+            goalsAgainst += conceded;
+            if (scored > conceded) {
+                wins++;
+            } else if (scored == conceded) {
+                draws++;
+            } else {
+                losses++;
+            }
+        }
+        return new TeamResults(wins, draws, losses, goalsFor, goalsAgainst);
+    }
+
+    private Chunk chunkOf(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("No archived match at row " + row);
+        }
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * Gets the chunk a new row goes into, adding it first if needed. Called with the lock held.
+     */
+    private Chunk chunkForAppend(int row) {
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        Chunk[] chunks = this.chunks;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = new Chunk();
+            this.chunks = chunks;
+        }
+        return chunks[chunkIndex];
+    }
+
+    /**
+     * The results of a team over a set of matches.
+     *
+     * @param wins the number of matches the team won
+     * @param draws the number of matches that ended in a draw
+     * @param losses the number of matches the team lost
+     * @param goalsFor the number of goals the team scored
+     * @param goalsAgainst the number of goals the team conceded
+     */
+    public record TeamResults(int wins, int draws, int losses, long goalsFor, long goalsAgainst) {
+
+        public int played() {
+            return wins + draws + losses;
+        }
+    }
+
+    private static final class Chunk {
+        private final int[] homeTeams = new int[CHUNK_SIZE];
+        private final int[] awayTeams = new int[CHUNK_SIZE];
+        private final int[] homeScores = new int[CHUNK_SIZE];
+        private final int[] awayScores = new int[CHUNK_SIZE];
+        private final long[] startSequences = new long[CHUNK_SIZE];
+    }
+}
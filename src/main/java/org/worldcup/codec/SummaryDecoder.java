@@ -0,0 +1,94 @@
+package org.worldcup.codec;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodes what a {@link SummaryEncoder} wrote. Team names are learned from {@link #decodeTeams(ByteBuffer)}, which must
+ * have seen every team ID before a match with it is decoded.
+ * Decoded scores carry no version, so their state is only meaningful for its home and away scores.
+ * Not thread-safe.
+ */
+public class SummaryDecoder {
+    private String[] teamNames = new String[64];
+
+    public void decodeTeams(ByteBuffer buffer) {
+        int first = Varints.readInt(buffer);
+        int count = Varints.readInt(buffer);
+        if (first + count > teamNames.length) {
+            teamNames = Arrays.copyOf(teamNames, Math.max(first + count, teamNames.length * 2));
+        }
+        for (int id = first; id < first + count; id++) {
+            byte[] name = new byte[Varints.readInt(buffer)];
+            buffer.get(name);
+            teamNames[id] = new String(name, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Decodes a score.
+     *
+     * @param buffer the buffer to read from
+     * @return the packed score, see {@link Score#getState()}
+     */
+    public long decodeScore(ByteBuffer buffer) {
+        int homeScore = Varints.readInt(buffer);
+        int awayScore = Varints.readInt(buffer);
+        return Score.withScore(Score.withScore(0, TeamType.HOME_TEAM, homeScore), TeamType.AWAY_TEAM, awayScore);
+    }
+
+    public Match decodeMatch(ByteBuffer buffer) {
+        String homeTeam = teamName(Varints.readInt(buffer));
+        String awayTeam = teamName(Varints.readInt(buffer));
+        long startSequence = Varints.readLong(buffer);
+        return new Match(homeTeam, awayTeam, new Score(decodeScore(buffer)), startSequence);
+    }
+
+    /**
+     * Decodes a summary.
+     *
+     * @param buffer the buffer to read from
+     * @return the summary
+     * @throws IllegalArgumentException if the summary was written in another format version
+     */
+    public DecodedSummary decodeSummary(ByteBuffer buffer) {
+        byte formatVersion = buffer.get();
+        if (formatVersion != SummaryEncoder.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported summary format version: " + formatVersion);
+        }
+        long version = Varints.readLong(buffer);
+        int count = Varints.readInt(buffer);
+        List<Match> matches = new ArrayList<>(Math.min(count, buffer.remaining()));
+        for (int i = 0; i < count; i++) {
+            matches.add(decodeMatch(buffer));
+        }
+        return new DecodedSummary(version, List.copyOf(matches));
+    }
+
+    private String teamName(int id) {
+        if (id <= 0 || id >= teamNames.length || teamNames[id] == null) {
+            throw new IllegalArgumentException("Unknown team ID: " + id);
+        }
+        return teamNames[id];
+    }
+
+    /**
+     * A decoded summary.
+     *
+     * @param version the version of the board the summary was captured at
+     * @param matches the matches in summary order
+     */
+    public record DecodedSummary(long version, List<Match> matches) {
+
+        public List<String> lines() {
+            return matches.stream().map(Match::toString).toList();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.worldcup.codec;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.util.SummarySnapshot;
+import org.worldcup.util.TeamRegistry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes matches, scores and whole summaries into a compact binary form for sending to many clients.
+ * Teams are written as their {@link TeamRegistry} IDs and numbers as varints, so a typical match takes a handful of
+ * bytes instead of a formatted line. Clients learn the names behind the IDs from {@link #encodeTeams(int, ByteBuffer)}.
+ * <ul>
+ *     <li>Score: home score, away score.</li>
+ *     <li>Match: home team ID, away team ID, start sequence, score.</li>
+ *     <li>Summary: format version byte, board version, match count, then the matches in summary order.</li>
+ *     <li>Teams: first team ID, team count, then the UTF-8 length and bytes of each name.</li>
+ * </ul>
+ * Each method writes at the position of the given buffer and advances it; a buffer that is too small gets a
+ * {@link java.nio.BufferOverflowException}. Decode with {@link SummaryDecoder}.
+ */
+public class SummaryEncoder {
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int MAX_SCORE_SIZE = 2 * 4; // a score has at most 24 bits, which take 4 varint bytes
+    private static final int MAX_MATCH_SIZE = 2 * Varints.MAX_INT_SIZE + Varints.MAX_LONG_SIZE + MAX_SCORE_SIZE;
+    private static final int MAX_SUMMARY_HEADER_SIZE = 1 + Varints.MAX_LONG_SIZE + Varints.MAX_INT_SIZE;
+
+    private final TeamRegistry teamRegistry;
+    private volatile EncodedSummary sharedSummary = new EncodedSummary(-1, null);
+
+    /**
+     * Creates an encoder with its own team IDs.
+     */
+    public SummaryEncoder() {
+        this(new TeamRegistry());
+    }
+
+    /**
+     * Creates an encoder that writes the IDs of a registry, for example the one of a {@code PackedMatchKeyGenerator}.
+     * Teams the registry does not know yet are registered.
+     *
+     * @param teamRegistry the registry of the team IDs
+     */
+    public SummaryEncoder(TeamRegistry teamRegistry) {
+        this.teamRegistry = teamRegistry;
+    }
+
+    /**
+     * Gets the number of bytes a summary of the given number of matches takes at most.
+     *
+     * @param matchCount the number of matches
+     * @return the maximum size in bytes
+     */
+    public static int maxSummarySize(int matchCount) {
+        return MAX_SUMMARY_HEADER_SIZE + matchCount * MAX_MATCH_SIZE;
+    }
+
+    public void encodeScore(long scoreState, ByteBuffer buffer) {
+        Varints.writeInt(buffer, Score.homeScore(scoreState));
+        Varints.writeInt(buffer, Score.awayScore(scoreState));
+    }
+
+    public void encodeMatch(Match match, ByteBuffer buffer) {
+        encodeMatch(match.homeTeam(), match.awayTeam(), match.startSequence(), match.score().getState(), buffer);
+    }
+
+    public void encodeSummary(SummarySnapshot snapshot, ByteBuffer buffer) {
+        buffer.put(FORMAT_VERSION);
+        Varints.writeLong(buffer, snapshot.version());
+        Varints.writeInt(buffer, snapshot.entries().size());
+        for (SummarySnapshot.Entry entry : snapshot.entries()) {
+            encodeMatch(entry.homeTeam(), entry.awayTeam(), entry.startSequence(), entry.scoreState(), buffer);
+        }
+    }
+
+    /**
+     * Encodes a summary once per version and shares the bytes with every caller.
+     * Each caller gets its own read-only view of the bytes, with its own position.
+     *
+     * @param snapshot the summary to encode
+     * @return a read-only buffer holding the encoded summary
+     */
+    public ByteBuffer encodeShared(SummarySnapshot snapshot) {
+        EncodedSummary encoded = sharedSummary;
+        if (encoded.version() != snapshot.version()) {
+            ByteBuffer buffer = ByteBuffer.allocate(maxSummarySize(snapshot.entries().size()));
+            encodeSummary(snapshot, buffer);
+            buffer.flip();
+            encoded = new EncodedSummary(snapshot.version(), buffer.asReadOnlyBuffer());
+            sharedSummary = encoded;
+        }
+        return encoded.bytes().duplicate();
+    }
+
+    /**
+     * Encodes the names of the teams registered from an ID on, so a client can resolve the IDs it has not seen yet.
+     *
+     * @param firstTeamId the first ID the client does not know, 1 for a new client
+     * @param buffer the buffer to write to
+     * @return the first ID to send next time
+     */
+    public int encodeTeams(int firstTeamId, ByteBuffer buffer) {
+        int teamCount = teamRegistry.countTeams();
+        int first = Math.max(firstTeamId, TeamRegistry.UNKNOWN_TEAM + 1);
+        int count = Math.max(0, teamCount + 1 - first);
+        Varints.writeInt(buffer, first);
+        Varints.writeInt(buffer, count);
+        for (int id = first; id < first + count; id++) {
+            byte[] name = teamRegistry.nameOf(id).getBytes(StandardCharsets.UTF_8);
+            Varints.writeInt(buffer, name.length);
+            buffer.put(name);
+        }
+        return first + count;
+    }
+
+    private void encodeMatch(String homeTeam, String awayTeam, long startSequence, long scoreState, ByteBuffer buffer) {
+        Varints.writeInt(buffer, teamRegistry.register(homeTeam));
+        Varints.writeInt(buffer, teamRegistry.register(awayTeam));
+        Varints.writeLong(buffer, startSequence);
+        encodeScore(scoreState, buffer);
+    }
+
+    private record EncodedSummary(long version, ByteBuffer bytes) {
+    }
+}
@@ -0,0 +1,51 @@
+package org.worldcup.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes unsigned variable-length integers: seven bits per byte, lowest bits first, with the high bit of each
+ * byte set while more bytes follow. Small values such as scores and team IDs take one byte.
+ */
+final class Varints {
+    static final int MAX_INT_SIZE = 5;
+    static final int MAX_LONG_SIZE = 10;
+
+    private Varints() {
+    }
+
+    static void writeInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static void writeLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int readInt(ByteBuffer buffer) {
+        long value = readLong(buffer);
+        if (value >>> 32 != 0) {
+            throw new IllegalArgumentException("Varint does not fit an int: " + value);
+        }
+        return (int) value;
+    }
+
+    static long readLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,269 @@
+package org.worldcup.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.worldcup.exceptions.ExistingMatchConflictException;
+import org.worldcup.exceptions.MatchAlreadyStartedException;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.exceptions.TeamAlreadyInMatchException;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SummarySnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the scoreboard over HTTP with the JDK's built-in server.
+ * <ul>
+ *     <li>{@code POST /matches?home=A&away=B} starts a match, {@code DELETE} finishes it and {@code GET} returns its score.</li>
+ *     <li>{@code POST /matches/goal?home=A&away=B&team=home} scores a goal, {@code POST /matches/infraction?...} adjusts the score for an infraction.</li>
+ *     <li>{@code GET /summary} returns the summary, one match per line; {@code limit=k} returns the top k matches.</li>
+ * </ul>
+ * Summaries carry the board version as their ETag, so a poller that sends it back in {@code If-None-Match} gets an
+ * empty {@code 304 Not Modified} until the board changes. The rendered summary is shared by all pollers of a version.
+ * Board versions start over when a board is recreated, so the ETag also carries a random epoch drawn per server: a tag
+ * from before a restart, or from another replica behind the same cache, never matches.
+ * <p>
+ * Requests run on virtual threads when the runtime has them, and on a cached thread pool otherwise. Idle keep-alive
+ * connections are held by the server's selector and take no thread.
+ */
+public class ScoreboardHttpServer implements Closeable {
+    private static final int BACKLOG = 4096;
+    private static final String TEXT_PLAIN = "text/plain; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MatchManager matchManager;
+    private final ScoreManager scoreManager;
+    private final MatchSummaryGenerator summaryGenerator;
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    private volatile RenderedSummary renderedSummary = new RenderedSummary(-1, new byte[0]);
+
+    /**
+     * Creates a server bound to the given address. Call {@link #start()} to start serving.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public ScoreboardHttpServer(InetSocketAddress address, MatchManager matchManager, ScoreManager scoreManager,
+                                MatchSummaryGenerator summaryGenerator) throws IOException {
+        this.matchManager = matchManager;
+        this.scoreManager = scoreManager;
+        this.summaryGenerator = summaryGenerator;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/matches", this::handleMatches);
+        server.createContext("/summary", this::handleSummary);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, closes the open connections and stops the request threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates a virtual thread per task executor if the runtime supports it. It is looked up reflectively, so the
+     * library still runs on Java 17.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "scoreboard-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleMatches(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            discardRequestBody(exchange);
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            String homeTeam = parameters.get("home");
+            String awayTeam = parameters.get("away");
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (homeTeam == null || awayTeam == null) {
+                respond(exchange, 400, "Both the home and the away team are required".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            try {
+                switch (path) {
+                    case "/matches" -> {
+                        switch (method) {
+                            case "POST" -> {
+                                matchManager.startMatch(homeTeam, awayTeam);
+                                respond(exchange, 201, null);
+                            }
+                            case "DELETE" -> {
+                                matchManager.finishMatch(homeTeam, awayTeam);
+                                respond(exchange, 204, null);
+                            }
+                            case "GET" -> respond(exchange, 200, scoreManager.getScore(homeTeam, awayTeam).getBytes(StandardCharsets.UTF_8));
+                            default -> methodNotAllowed(exchange, "GET, POST, DELETE");
+                        }
+                    }
+                    case "/matches/goal", "/matches/infraction" -> {
+                        if (!method.equals("POST")) {
+                            methodNotAllowed(exchange, "POST");
+                            return;
+                        }
+                        TeamType teamType = parseTeamType(parameters.get("team"));
+                        if (path.equals("/matches/goal")) {
+                            scoreManager.updateScore(homeTeam, awayTeam, teamType);
+                        } else {
+                            scoreManager.adjustScoreForInfraction(homeTeam, awayTeam, teamType);
+                        }
+                        respond(exchange, 204, null);
+                    }
+                    default -> respond(exchange, 404, null);
+                }
+            } catch (MatchNotFoundException e) {
+                respond(exchange, 404, e.getMessage().getBytes(StandardCharsets.UTF_8));
+            } catch (MatchAlreadyStartedException | ExistingMatchConflictException | TeamAlreadyInMatchException
+                     | IllegalStateException e) {
+                respond(exchange, 409, e.getMessage().getBytes(StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void handleSummary(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            discardRequestBody(exchange);
+            if (!exchange.getRequestMethod().equals("GET")) {
+                methodNotAllowed(exchange, "GET");
+                return;
+            }
+            int limit;
+            try {
+                String limitParameter = parseQuery(exchange.getRequestURI().getRawQuery()).get("limit");
+                limit = limitParameter == null ? -1 : Integer.parseInt(limitParameter);
+                if (limitParameter != null && limit < 0) {
+                    throw new IllegalArgumentException("The limit cannot be negative");
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, null);
+                return;
+            }
+            SummarySnapshot snapshot = summaryGenerator.getSnapshot();
+            String etag = "\"" + epoch + "-" + snapshot.version() + (limit < 0 ? "" : "-" + limit) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, null);
+            } else if (limit < 0) {
+                respond(exchange, 200, render(snapshot));
+            } else {
+                List<SummarySnapshot.Entry> entries = snapshot.entries();
+                respond(exchange, 200, render(entries.subList(0, Math.min(limit, entries.size()))));
+            }
+        }
+    }
+
+    /**
+     * Renders the full summary of a snapshot once, and shares it with every request for the same version.
+     */
+    private byte[] render(SummarySnapshot snapshot) {
+        RenderedSummary rendered = renderedSummary;
+        if (rendered.version() != snapshot.version()) {
+            rendered = new RenderedSummary(snapshot.version(), render(snapshot.entries()));
+            renderedSummary = rendered;
+        }
+        return rendered.body();
+    }
+
+    private static byte[] render(List<SummarySnapshot.Entry> entries) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(entries.size() * 32);
+        for (SummarySnapshot.Entry entry : entries) {
+            body.writeBytes(entry.line().utf8());
+            body.write('\n');
+        }
+        return body.toByteArray();
+    }
+
+    private static TeamType parseTeamType(String team) {
+        if ("home".equals(team)) {
+            return TeamType.HOME_TEAM;
+        } else if ("away".equals(team)) {
+            return TeamType.AWAY_TEAM;
+        }
+        throw new IllegalArgumentException("Team must be home or away");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Reads the request body to its end. The server may otherwise close a keep-alive connection the client is already
+     * sending its next request on.
+     */
+    private static void discardRequestBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void methodNotAllowed(HttpExchange exchange, String allowedMethods) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowedMethods);
+        respond(exchange, 405, null);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        // A length of 0 would mean a chunked body, -1 means an empty one
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private record RenderedSummary(long version, byte[] body) {
+    }
+}
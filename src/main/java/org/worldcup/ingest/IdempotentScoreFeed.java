@@ -0,0 +1,159 @@
+package org.worldcup.ingest;
+
+import org.worldcup.exceptions.ExistingMatchConflictException;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.journal.JournalEntry;
+import org.worldcup.journal.MatchJournal;
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.ScoreEvent;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the score events of an at-least-once feed exactly once.
+ * Each event carries the sequence number the feed gave it within its match. A sliding window of the latest sequences
+ * of each match drops the events that were already applied, so a feed can be replayed from any point after a
+ * reconnect or a failover without counting a goal twice. Checking a sequence takes constant time and allocates nothing.
+ * <p>
+ * The window covers {@value SequenceWindow#SIZE} sequences: an event older than that, compared with the newest event
+ * of its match, is dropped as already applied. The windows belong to the match instance in this process and are
+ * dropped when it finishes, so a restarted match starts its sequences over.
+ * <p>
+ * To survive a restart or a failover to another process, create the feed with the {@link MatchJournal} the board is
+ * recorded in. Each sequence is then journaled as it is used up, before its event is applied, and a feed created on
+ * the board replayed from that journal rebuilds the windows of the live matches from it. A crash between the two
+ * records can lose the event of the last sequences, but never counts one twice. Without a journal the windows start
+ * empty after a restart, so a replayed event is applied again.
+ */
+public class IdempotentScoreFeed implements MatchEventListener {
+    private final MatchManager matchManager;
+    private final ScoreManager scoreManager;
+    private final MatchJournal journal;
+    private final ConcurrentHashMap<Match, SequenceWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a feed that applies its events to the matches of a manager, and registers it with the manager.
+     *
+     * @param matchManager the manager of the matches the events apply to
+     */
+    public IdempotentScoreFeed(MatchManager matchManager) {
+        this.matchManager = matchManager;
+        this.scoreManager = new ScoreManager(matchManager);
+        this.journal = null;
+        matchManager.addListener(this);
+    }
+
+    /**
+     * Creates a feed that journals the sequences it uses up, and registers it with the manager.
+     * The windows of the live matches are rebuilt from the sequences already in the journal, so create the feed after
+     * the board was replayed from the journal with {@link MatchJournal#replay}, and before applying new events.
+     * The journal should also be registered with the manager, so the events are journaled with their sequences.
+     *
+     * @param matchManager the manager of the matches the events apply to
+     * @param journal the journal the board is recorded in
+     * @throws IOException if the journal cannot be read
+     */
+    public IdempotentScoreFeed(MatchManager matchManager, MatchJournal journal) throws IOException {
+        this.matchManager = matchManager;
+        this.scoreManager = new ScoreManager(matchManager);
+        this.journal = journal;
+        journal.readEntries(this::recover);
+        matchManager.addListener(this);
+    }
+
+    /**
+     * Applies an event unless its sequence was already used by its match.
+     * The sequence is used up before the event is applied, so a concurrent redelivery of it is never applied too.
+     *
+     * @param feedSequence the sequence of the event within its match, not negative
+     * @param event the event
+     * @return the result of the event, {@link ScoreEvent.Result#DUPLICATE} if its sequence was already used. An event
+     * that was ignored with {@link ScoreEvent.Result#SCORE_AT_MINIMUM} or {@link ScoreEvent.Result#SCORE_AT_MAXIMUM}
+     * still uses up its sequence, so redelivering it is reported as a duplicate and never applies it later.
+     */
+    public ScoreEvent.Result apply(long feedSequence, ScoreEvent event) {
+        if (feedSequence < 0 || event == null || event.teamType() == null || event.type() == null) {
+            return ScoreEvent.Result.INVALID;
+        }
+        Match match;
+        try {
+            matchManager.validateTeams(event.homeTeam(), event.awayTeam());
+            match = matchManager.findMatch(event.homeTeam(), event.awayTeam());
+        } catch (IllegalArgumentException e) {
+            return ScoreEvent.Result.INVALID;
+        } catch (MatchNotFoundException | ExistingMatchConflictException e) {
+            return ScoreEvent.Result.MATCH_NOT_FOUND;
+        }
+        SequenceWindow window = windows.get(match);
+        if (window == null) {
+            window = windows.computeIfAbsent(match, m -> new SequenceWindow());
+            dropIfFinished(match);
+        }
+        if (!window.mark(feedSequence)) {
+            return ScoreEvent.Result.DUPLICATE;
+        }
+        if (journal != null) {
+            journal.feedSequenceUsed(match, feedSequence);
+        }
+        return scoreManager.apply(match, event);
+    }
+
+    /**
+     * Gets the highest sequence applied to a match, so a consumer knows where to resume its feed.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the highest sequence, or -1 if no event of the match was applied
+     * @throws MatchNotFoundException if the match between the home team and away team is not found
+     */
+    public long highestSequence(String homeTeam, String awayTeam) {
+        SequenceWindow window = windows.get(matchManager.findMatch(homeTeam, awayTeam));
+        return window == null ? -1 : window.highestSequence();
+    }
+
+    int windowCount() {
+        return windows.size();
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        windows.remove(match);
+    }
+
+    /**
+     * Marks a journaled sequence in the window of its match, if the match is still live. A sequence of a finished match
+     * or of an earlier match between the same teams is skipped, since the live match started its sequences over.
+     */
+    private void recover(JournalEntry entry) {
+        if (entry.type() != JournalEntry.Type.FEED_SEQUENCE) {
+            return;
+        }
+        Match match;
+        try {
+            match = matchManager.findMatch(entry.homeTeam(), entry.awayTeam());
+        } catch (MatchNotFoundException | ExistingMatchConflictException e) {
+            return;
+        }
+        if (match.startSequence() == entry.startSequence()) {
+            windows.computeIfAbsent(match, m -> new SequenceWindow()).mark(entry.feedSequence());
+        }
+    }
+
+    /**
+     * Drops the window of a match that finished while its window was being created, after its finish dropped the others.
+     */
+    private void dropIfFinished(Match match) {
+        try {
+            if (matchManager.findMatch(match.homeTeam(), match.awayTeam()) == match) {
+                return;
+            }
+        } catch (MatchNotFoundException e) {
+            // Finished
+        }
+        windows.remove(match);
+    }
+}
@@ -0,0 +1,44 @@
+package org.worldcup.ingest;
+
+import org.worldcup.model.ScoreEvent;
+
+/**
+ * Tracks the completion of one command published to an {@link IngestPipeline}.
+ */
+public final class IngestHandle {
+    private final WaitStrategy waitStrategy;
+    private volatile boolean done;
+    private ScoreEvent.Result result;
+    private RuntimeException failure;
+
+    IngestHandle(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    void complete(ScoreEvent.Result result, RuntimeException failure) {
+        this.result = result;
+        this.failure = failure;
+        this.done = true;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Waits until the command has been applied, using the wait strategy of the pipeline.
+     *
+     * @return the result of a score event, or null for a start or a finish
+     * @throws RuntimeException the exception the command failed with, such as a
+     *                          {@link org.worldcup.exceptions.MatchAlreadyStartedException} for a start
+     */
+    public ScoreEvent.Result join() {
+        while (!done) {
+            waitStrategy.idle();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+}
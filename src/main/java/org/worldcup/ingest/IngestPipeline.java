@@ -0,0 +1,200 @@
+package org.worldcup.ingest;
+
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.ScoreEvent;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Applies the commands of many producer threads to the scoreboard from a single writer thread.
+ * Producers claim a slot of a preallocated ring buffer with a compare-and-set and publish their command into it; they
+ * never take a lock and never wait for the scoreboard, only for a free slot when the ring is full. The writer drains
+ * the published commands in batches, in the order they were claimed, and applies consecutive score events of a batch
+ * with {@link ScoreManager#applyBatch(List)}.
+ * <p>
+ * Stop the producers before closing the pipeline: a command published while the pipeline closes may never complete.
+ */
+public class IngestPipeline implements Closeable {
+    private static final int START = 1;
+    private static final int FINISH = 2;
+    private static final int SCORE = 3;
+
+    private final MatchManager matchManager;
+    private final ScoreManager scoreManager;
+    private final WaitStrategy waitStrategy;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+    private final AtomicLong appliedSequence = new AtomicLong(-1);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Reused by the writer for the score events of a batch
+    private final List<ScoreEvent> pendingEvents = new ArrayList<>();
+    private final List<IngestHandle> pendingHandles = new ArrayList<>();
+
+    /**
+     * Creates a pipeline and starts its writer thread.
+     *
+     * @param matchManager the manager of the matches the commands apply to
+     * @param capacity the number of slots of the ring buffer, a power of two
+     * @param waitStrategy how the writer, the producers and the callers of {@link IngestHandle#join()} wait
+     * @throws IllegalArgumentException if the capacity is not a positive power of two
+     */
+    public IngestPipeline(MatchManager matchManager, int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.matchManager = matchManager;
+        this.scoreManager = new ScoreManager(matchManager);
+        this.waitStrategy = waitStrategy;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        this.publishedSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            publishedSequences.set(i, -1);
+        }
+        writer = new Thread(this::drain, "score-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public IngestHandle startMatch(String homeTeam, String awayTeam) {
+        return publish(START, homeTeam, awayTeam, null);
+    }
+
+    public IngestHandle finishMatch(String homeTeam, String awayTeam) {
+        return publish(FINISH, homeTeam, awayTeam, null);
+    }
+
+    public IngestHandle applyScore(ScoreEvent event) {
+        return publish(SCORE, null, null, event);
+    }
+
+    /**
+     * Applies the commands published so far and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private IngestHandle publish(int type, String homeTeam, String awayTeam, ScoreEvent event) {
+        if (!running) {
+            throw new IllegalStateException("The ingest pipeline is closed");
+        }
+        long sequence = claim();
+        Slot slot = slots[(int) sequence & mask];
+        IngestHandle handle = new IngestHandle(waitStrategy);
+        slot.type = type;
+        slot.homeTeam = homeTeam;
+        slot.awayTeam = awayTeam;
+        slot.event = event;
+        slot.handle = handle;
+        publishedSequences.setRelease((int) sequence & mask, sequence);
+        return handle;
+    }
+
+    /**
+     * Claims the next sequence, waiting while its slot still holds a command the writer has not applied.
+     */
+    private long claim() {
+        while (true) {
+            long current = claimedSequence.get();
+            long next = current + 1;
+            if (next - slots.length > appliedSequence.get()) {
+                waitStrategy.idle();
+            } else if (claimedSequence.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread: applies batches of published commands until the pipeline is closed and drained.
+     */
+    private void drain() {
+        long nextSequence = 0;
+        while (running || nextSequence <= claimedSequence.get()) {
+            long sequence = nextSequence;
+            while (sequence - nextSequence < slots.length && publishedSequences.getAcquire((int) sequence & mask) == sequence) {
+                sequence++;
+            }
+            if (sequence == nextSequence) {
+                waitStrategy.idle();
+                continue;
+            }
+            for (long s = nextSequence; s < sequence; s++) {
+                apply(slots[(int) s & mask]);
+            }
+            applyPendingEvents();
+            nextSequence = sequence;
+            appliedSequence.set(sequence - 1);
+        }
+    }
+
+    private void apply(Slot slot) {
+        if (slot.type == SCORE) {
+            pendingEvents.add(slot.event);
+            pendingHandles.add(slot.handle);
+        } else {
+            // Score events published before a start or finish must be applied first
+            applyPendingEvents();
+            RuntimeException failure = null;
+            try {
+                if (slot.type == START) {
+                    matchManager.startMatch(slot.homeTeam, slot.awayTeam);
+                } else {
+                    matchManager.finishMatch(slot.homeTeam, slot.awayTeam);
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            slot.handle.complete(null, failure);
+        }
+        slot.homeTeam = null;
+        slot.awayTeam = null;
+        slot.event = null;
+        slot.handle = null;
+    }
+
+    private void applyPendingEvents() {
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        try {
+            List<ScoreEvent.Result> results = scoreManager.applyBatch(pendingEvents);
+            for (int i = 0; i < results.size(); i++) {
+                pendingHandles.get(i).complete(results.get(i), null);
+            }
+        } catch (RuntimeException e) {
+            // Only a failing listener gets here; the scores may already have changed
+            pendingHandles.forEach(handle -> handle.complete(null, e));
+        }
+        pendingEvents.clear();
+        pendingHandles.clear();
+    }
+
+    /**
+     * One preallocated entry of the ring buffer. Its fields are published by the release write of its sequence.
+     */
+    private static final class Slot {
+        private int type;
+        private String homeTeam;
+        private String awayTeam;
+        private ScoreEvent event;
+        private IngestHandle handle;
+    }
+}
@@ -0,0 +1,61 @@
+package org.worldcup.ingest;
+
+import java.util.Arrays;
+
+/**
+ * Remembers which of the latest feed sequences of one match were seen, in a ring of bits.
+ * The window covers the {@link #SIZE} sequences up to the highest one seen; a sequence below the window is taken to
+ * have been seen, so a feed may deliver its events out of order by up to the window size.
+ * Marking a sequence takes constant amortized time and allocates nothing.
+ */
+final class SequenceWindow {
+    static final int SIZE = 1024;
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+
+    // Guarded by this
+    private final long[] words = new long[SIZE >>> WORD_SHIFT];
+    private long highestSequence = -1;
+
+    /**
+     * Marks a sequence as seen.
+     *
+     * @param sequence the feed sequence, not negative
+     * @return true if the sequence had not been seen yet
+     */
+    synchronized boolean mark(long sequence) {
+        if (sequence > highestSequence) {
+            advance(sequence);
+        } else if (highestSequence - sequence >= SIZE) {
+            return false;
+        }
+        int bit = (int) (sequence & (SIZE - 1));
+        long mask = 1L << (bit & WORD_MASK);
+        long word = words[bit >>> WORD_SHIFT];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        words[bit >>> WORD_SHIFT] = word | mask;
+        return true;
+    }
+
+    synchronized long highestSequence() {
+        return highestSequence;
+    }
+
+    /**
+     * Moves the window up to a new highest sequence, clearing the bits of the sequences that leave it.
+     */
+    private void advance(long sequence) {
+        if (sequence - highestSequence >= SIZE) {
+            Arrays.fill(words, 0);
+        } else {
+            for (long cleared = highestSequence + 1; cleared <= sequence; cleared++) {
+                int bit = (int) (cleared & (SIZE - 1));
+                words[bit >>> WORD_SHIFT] &= ~(1L << (bit & WORD_MASK));
+            }
+        }
+        highestSequence = sequence;
+    }
+}
@@ -0,0 +1,36 @@
+package org.worldcup.ingest;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread of the {@link IngestPipeline} waits: the writer for commands, a producer for a free slot, and a caller
+ * for the completion of its command. Spinning gives the lowest latency and burns a core; parking frees the core and
+ * adds the latency of waking up.
+ */
+public enum WaitStrategy {
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = 10_000;
+
+    /**
+     * Waits a little before the caller checks its condition again.
+     */
+    abstract void idle();
+}
@@ -0,0 +1,29 @@
+package org.worldcup.journal;
+
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+
+/**
+ * One change recorded in a {@link MatchJournal}.
+ *
+ * @param type the kind of change
+ * @param homeTeam the name of the home team
+ * @param awayTeam the name of the away team
+ * @param teamType the team whose score has changed, or null if the change is not a score change
+ * @param startSequence the start sequence of the match, which tells apart matches between the same teams
+ * @param scoreState the packed score after the change, see {@link Score#getState()}
+ * @param timestamp the time of the change in milliseconds since the epoch
+ * @param feedSequence the feed sequence used up by the match, or -1 if the entry is not a feed sequence
+ */
+public record JournalEntry(Type type, String homeTeam, String awayTeam, TeamType teamType, long startSequence,
+                           long scoreState, long timestamp, long feedSequence) {
+
+    public enum Type {
+        MATCH_STARTED,
+        MATCH_FINISHED,
+        GOAL,
+        INFRACTION,
+        /** A feed sequence used up by the match, recorded before the event it belongs to is applied. */
+        FEED_SEQUENCE
+    }
+}
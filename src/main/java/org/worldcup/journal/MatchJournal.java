@@ -0,0 +1,540 @@
+package org.worldcup.journal;
+
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.MatchRepository;
+import org.worldcup.util.MatchKeyGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Records every change to the scoreboard in an append-only file, for auditing and for rebuilding the board.
+ * Register it with {@link MatchManager#addListener(MatchEventListener)}.
+ * <p>
+ * Changes are appended to an in-memory batch, and a background thread writes the batch and forces it to the storage
+ * device once it holds the maximum batch size or the flush interval has passed since its first change. Concurrent
+ * changes therefore share one force instead of paying for one each. Appending never waits for the disk; call
+ * {@link #sync()} to learn when the changes made so far are durable.
+ * <p>
+ * Each record carries a checksum, so a record torn by a crash is detected and dropped when the journal is reopened.
+ * <p>
+ * The journal also records the feed sequences an {@link org.worldcup.ingest.IdempotentScoreFeed} uses up, so a feed
+ * recovered from it keeps dropping the events that were applied before a restart or a failover.
+ * <p>
+ * The listener methods never throw: the change they report has already been made. A change that cannot be appended,
+ * because the journal is closed or has failed, is counted as lost, and {@link #sync()} fails from then on.
+ */
+public class MatchJournal implements MatchEventListener, Closeable {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(1);
+
+    private static final int MAGIC = 0x57434A4C;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MIN_BODY_SIZE = 2 + 3 * Long.BYTES + 2 * Short.BYTES;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int MAX_BODY_SIZE = MIN_BODY_SIZE + 2 * MAX_NAME_BYTES + Long.BYTES;
+    private static final int INITIAL_BATCH_CAPACITY = 64 * 1024;
+
+    private static final JournalEntry.Type[] TYPES = JournalEntry.Type.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Thread flusher;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<PendingSync> pendingSyncs = new ArrayDeque<>();
+    private ByteBuffer batch = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+    private ByteBuffer spareBatch = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+    private int batchSize;
+    private long batchStartNanos;
+    private long appendedPosition;
+    private long durablePosition;
+    private IOException failure;
+    private RuntimeException lostChange;
+    private long lostChangeCount;
+    private boolean closed;
+
+    public MatchJournal(Path file) throws IOException {
+        this(file, DEFAULT_MAX_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Opens the journal stored in the given file, creating the file if it does not exist.
+     * A torn record at the end of the file, left by a crash, is truncated.
+     *
+     * @param file the file holding the journal
+     * @param maxBatchSize the number of changes that triggers a flush
+     * @param flushInterval the longest time a change waits for a flush
+     * @throws IllegalArgumentException if the batch size is not positive or the flush interval is negative
+     * @throws IOException if the file cannot be opened, or is not a journal file
+     */
+    public MatchJournal(Path file, int maxBatchSize, Duration flushInterval) throws IOException {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        } else if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("Flush interval cannot be negative");
+        }
+        this.file = file;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            long end = readEntries(channel.size(), entry -> {
+            });
+            channel.truncate(end);
+            channel.position(end);
+            appendedPosition = end;
+            durablePosition = end;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        flusher = new Thread(this::flushBatches, "match-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void matchStarted(Match match) {
+        append(JournalEntry.Type.MATCH_STARTED, match, null);
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        append(JournalEntry.Type.MATCH_FINISHED, match, null);
+    }
+
+    @Override
+    public void scoreChanged(Match match, TeamType teamType, int delta) {
+        append(delta > 0 ? JournalEntry.Type.GOAL : JournalEntry.Type.INFRACTION, match, teamType);
+    }
+
+    /**
+     * Records a feed sequence used up by a match, with the score of the match before the event of the sequence.
+     * Like the listener methods, it never throws: a sequence that cannot be appended is counted as a lost change.
+     *
+     * @param match the match the sequence belongs to
+     * @param feedSequence the sequence, not negative
+     */
+    public void feedSequenceUsed(Match match, long feedSequence) {
+        append(JournalEntry.Type.FEED_SEQUENCE, match, null, feedSequence);
+    }
+
+    /**
+     * Gets a future that completes once every change appended so far is durable.
+     * Call {@code sync().join()} for a blocking acknowledgement.
+     * The future completes on the flushing thread, so actions chained to it must not block.
+     *
+     * @return the future, which completes exceptionally with an {@link UncheckedIOException} if the journal cannot be
+     * written, or with the cause of the first lost change if a change could not be appended
+     */
+    public CompletableFuture<Void> sync() {
+        synchronized (lock) {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new UncheckedIOException(failure));
+            } else if (lostChange != null) {
+                return CompletableFuture.failedFuture(lostChange);
+            } else if (durablePosition == appendedPosition) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pendingSyncs.add(new PendingSync(appendedPosition, future));
+            return future;
+        }
+    }
+
+    /**
+     * Gets the number of changes that were reported to the journal but could not be appended.
+     *
+     * @return the number of lost changes
+     */
+    public long getLostChangeCount() {
+        synchronized (lock) {
+            return lostChangeCount;
+        }
+    }
+
+    /**
+     * Reads the durable entries of the journal, oldest first.
+     *
+     * @param consumer receives the entries
+     * @throws IOException if the file cannot be read
+     */
+    public void readEntries(Consumer<JournalEntry> consumer) throws IOException {
+        long limit;
+        synchronized (lock) {
+            limit = durablePosition;
+        }
+        readEntries(limit, consumer);
+    }
+
+    /**
+     * Rebuilds the live matches of the journal in a repository, with their scores and start sequences.
+     * Replay into a repository before creating its {@link MatchManager}, so new matches still count as the most recent.
+     * A replayed match that conflicts with a match already in the repository replaces it only if it started later.
+     *
+     * @param matchRepository the repository to add the matches to
+     * @param matchKeyGenerator the key generator used with the repository
+     * @throws IOException if the file cannot be read
+     */
+    public void replay(MatchRepository matchRepository, MatchKeyGenerator matchKeyGenerator) throws IOException {
+        Map<ReplayKey, ReplayedMatch> replayedMatches = new HashMap<>();
+        readEntries(entry -> replayEntry(replayedMatches, entry));
+
+        List<ReplayedMatch> liveMatches = new ArrayList<>();
+        for (ReplayedMatch replayedMatch : replayedMatches.values()) {
+            if (replayedMatch.started && !replayedMatch.finished) {
+                liveMatches.add(replayedMatch);
+            }
+        }
+        liveMatches.sort(Comparator.comparingLong(replayedMatch -> replayedMatch.key.startSequence()));
+        for (ReplayedMatch replayedMatch : liveMatches) {
+            ReplayKey key = replayedMatch.key;
+            String matchKey = matchKeyGenerator.generateKey(key.homeTeam(), key.awayTeam());
+            Match match = new Match(key.homeTeam(), key.awayTeam(), new Score(replayedMatch.scoreState), key.startSequence());
+            String conflictingKey;
+            while ((conflictingKey = matchRepository.addMatch(matchKey, match)) != null) {
+                Match conflictingMatch = matchRepository.getMatch(conflictingKey);
+                if (conflictingMatch == null || conflictingMatch.startSequence() >= key.startSequence()) {
+                    break;
+                }
+                matchRepository.removeMatch(conflictingKey);
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining changes, stops the flushing thread and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Folds one entry into the replayed matches.
+     * Listeners run after a change is applied, so the entries of one match can be slightly out of order: a goal or a
+     * finish may be recorded before the start it follows. Scores are therefore taken from the entry with the newest score
+     * version, and a finish recorded before its start cancels that start.
+     */
+    private static void replayEntry(Map<ReplayKey, ReplayedMatch> replayedMatches, JournalEntry entry) {
+        ReplayKey key = new ReplayKey(entry.startSequence(), entry.homeTeam(), entry.awayTeam());
+        ReplayedMatch replayedMatch = replayedMatches.get(key);
+        switch (entry.type()) {
+            case MATCH_STARTED -> {
+                if (replayedMatch == null || (replayedMatch.started && replayedMatch.finished)) {
+                    replayedMatch = new ReplayedMatch(key);
+                    replayedMatch.started = true;
+                    replayedMatches.put(key, replayedMatch);
+                } else if (replayedMatch.finished) {
+                    replayedMatches.remove(key);
+                } else {
+                    replayedMatch.started = true;
+                }
+            }
+            case MATCH_FINISHED -> {
+                if (replayedMatch == null) {
+                    replayedMatch = new ReplayedMatch(key);
+                    replayedMatches.put(key, replayedMatch);
+                }
+                replayedMatch.finished = true;
+            }
+            default -> {
+                if (replayedMatch == null) {
+                    replayedMatch = new ReplayedMatch(key);
+                    replayedMatches.put(key, replayedMatch);
+                }
+                if (!replayedMatch.finished && (short) (Score.version(entry.scoreState()) - Score.version(replayedMatch.scoreState)) > 0) {
+                    replayedMatch.scoreState = entry.scoreState();
+                }
+            }
+        }
+    }
+
+    private void append(JournalEntry.Type type, Match match, TeamType teamType) {
+        append(type, match, teamType, -1);
+    }
+
+    private void append(JournalEntry.Type type, Match match, TeamType teamType, long feedSequence) {
+        byte[] record;
+        try {
+            record = encode(type, match, teamType, feedSequence);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                loseChange(e);
+            }
+            return;
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                loseChange(new UncheckedIOException(failure));
+                return;
+            } else if (closed) {
+                loseChange(new IllegalStateException("The journal is closed"));
+                return;
+            }
+            if (batch.remaining() < record.length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + record.length));
+                batch = grown.put(batch.flip());
+            }
+            batch.put(record);
+            appendedPosition += record.length;
+            if (batchSize++ == 0) {
+                batchStartNanos = System.nanoTime();
+                lock.notifyAll();
+            } else if (batchSize == maxBatchSize) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Counts a change that could not be appended, and keeps the first cause for {@link #sync()}.
+     * Called with the lock held.
+     */
+    private void loseChange(RuntimeException cause) {
+        if (lostChange == null) {
+            lostChange = cause;
+        }
+        lostChangeCount++;
+    }
+
+    /**
+     * Encodes a record; only a feed sequence record ends with the sequence, so the records of the other changes keep
+     * the layout of the first journals.
+     */
+    private static byte[] encode(JournalEntry.Type type, Match match, TeamType teamType, long feedSequence) {
+        byte[] homeTeam = encodeName(match.homeTeam());
+        byte[] awayTeam = encodeName(match.awayTeam());
+        boolean hasFeedSequence = type == JournalEntry.Type.FEED_SEQUENCE;
+        int bodySize = MIN_BODY_SIZE + homeTeam.length + awayTeam.length + (hasFeedSequence ? Long.BYTES : 0);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bodySize);
+        record.putInt(bodySize).putInt(0)
+                .put((byte) type.ordinal())
+                .put((byte) (teamType == null ? 0 : teamType.ordinal() + 1))
+                .putLong(System.currentTimeMillis())
+                .putLong(match.startSequence())
+                .putLong(match.score().getState())
+                .putShort((short) homeTeam.length).put(homeTeam)
+                .putShort((short) awayTeam.length).put(awayTeam);
+        if (hasFeedSequence) {
+            record.putLong(feedSequence);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), RECORD_HEADER_SIZE, bodySize);
+        record.putInt(Integer.BYTES, (int) checksum.getValue());
+        return record.array();
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException(String.format("Cannot journal %s, it is longer than %d bytes", name, MAX_NAME_BYTES));
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes and forces batches until the journal is closed or has failed.
+     * An interrupt does not stop the journal: it is remembered and restored when the thread ends.
+     */
+    private void flushBatches() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                ByteBuffer fullBatch;
+                long end;
+                synchronized (lock) {
+                    while (!closed && !isBatchDue()) {
+                        try {
+                            if (batchSize == 0) {
+                                lock.wait();
+                            } else {
+                                long remainingNanos = flushIntervalNanos - (System.nanoTime() - batchStartNanos);
+                                if (remainingNanos > 0) {
+                                    lock.wait(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (batchSize == 0 || failure != null) {
+                        return;
+                    }
+                    fullBatch = batch;
+                    batch = spareBatch;
+                    batchSize = 0;
+                    end = appendedPosition;
+                }
+
+                // An interrupt that raced a notification is still pending, and would close the channel
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+                try {
+                    fullBatch.flip();
+                    while (fullBatch.hasRemaining()) {
+                        channel.write(fullBatch);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    fail(e);
+                    return;
+                }
+
+                List<CompletableFuture<Void>> completed = new ArrayList<>();
+                synchronized (lock) {
+                    spareBatch = fullBatch.clear();
+                    durablePosition = end;
+                    while (!pendingSyncs.isEmpty() && pendingSyncs.peek().position() <= end) {
+                        completed.add(pendingSyncs.poll().future());
+                    }
+                }
+                completed.forEach(future -> future.complete(null));
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isBatchDue() {
+        return batchSize >= maxBatchSize || (batchSize > 0 && System.nanoTime() - batchStartNanos >= flushIntervalNanos);
+    }
+
+    private void fail(IOException e) {
+        List<PendingSync> failed;
+        synchronized (lock) {
+            failure = e;
+            closed = true;
+            failed = new ArrayList<>(pendingSyncs);
+            pendingSyncs.clear();
+        }
+        failed.forEach(pendingSync -> pendingSync.future().completeExceptionally(new UncheckedIOException(e)));
+    }
+
+    /**
+     * Reads the valid entries before the limit.
+     *
+     * @return the position after the last valid entry
+     */
+    private long readEntries(long limit, Consumer<JournalEntry> consumer) throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader), INITIAL_BATCH_CAPACITY))) {
+            if (limit < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a match journal: " + file);
+            }
+            long position = HEADER_SIZE;
+            CRC32 checksum = new CRC32();
+            while (position + RECORD_HEADER_SIZE <= limit) {
+                int bodySize;
+                int expectedChecksum;
+                byte[] body;
+                try {
+                    bodySize = in.readInt();
+                    expectedChecksum = in.readInt();
+                    if (bodySize < MIN_BODY_SIZE || bodySize > MAX_BODY_SIZE || position + RECORD_HEADER_SIZE + bodySize > limit) {
+                        break;
+                    }
+                    body = new byte[bodySize];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(body);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    break;
+                }
+                consumer.accept(decode(ByteBuffer.wrap(body)));
+                position += RECORD_HEADER_SIZE + bodySize;
+            }
+            return position;
+        }
+    }
+
+    private static JournalEntry decode(ByteBuffer body) {
+        JournalEntry.Type type = TYPES[body.get()];
+        int team = body.get();
+        long timestamp = body.getLong();
+        long startSequence = body.getLong();
+        long scoreState = body.getLong();
+        String homeTeam = decodeName(body);
+        String awayTeam = decodeName(body);
+        long feedSequence = type == JournalEntry.Type.FEED_SEQUENCE ? body.getLong() : -1;
+        TeamType teamType = team == 0 ? null : TeamType.values()[team - 1];
+        return new JournalEntry(type, homeTeam, awayTeam, teamType, startSequence, scoreState, timestamp, feedSequence);
+    }
+
+    private static String decodeName(ByteBuffer body) {
+        byte[] bytes = new byte[Short.toUnsignedInt(body.getShort())];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record PendingSync(long position, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Identifies one match across the entries; the start sequence tells apart matches between the same teams.
+     */
+    private record ReplayKey(long startSequence, String homeTeam, String awayTeam) {
+    }
+
+    private static final class ReplayedMatch {
+        private final ReplayKey key;
+        private boolean started;
+        private boolean finished;
+        private long scoreState;
+
+        private ReplayedMatch(ReplayKey key) {
+            this.key = key;
+        }
+    }
+}
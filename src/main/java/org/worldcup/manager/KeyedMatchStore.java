@@ -0,0 +1,53 @@
+package org.worldcup.manager;
+
+import org.worldcup.model.Match;
+import org.worldcup.repository.MatchRepository;
+import org.worldcup.util.MatchKeyGenerator;
+
+import java.util.function.Consumer;
+
+/**
+ * Stores matches in any {@link MatchRepository} under the string keys of a {@link MatchKeyGenerator}.
+ */
+class KeyedMatchStore implements MatchStore {
+    private final MatchRepository matchRepository;
+    private final MatchKeyGenerator matchKeyGenerator;
+
+    KeyedMatchStore(MatchRepository matchRepository, MatchKeyGenerator matchKeyGenerator) {
+        this.matchRepository = matchRepository;
+        this.matchKeyGenerator = matchKeyGenerator;
+    }
+
+    @Override
+    public StartConflict add(String homeTeam, String awayTeam, Match match, Consumer<Match> added) {
+        String key = matchKeyGenerator.generateKey(homeTeam, awayTeam);
+        String conflictingKey = matchRepository.addMatch(key, match, added);
+        if (conflictingKey == null) {
+            return null;
+        } else if (conflictingKey.equals(key)) {
+            return StartConflict.SAME_MATCH;
+        } else if (conflictingKey.equals(matchKeyGenerator.generateKey(awayTeam, homeTeam))) {
+            return StartConflict.REVERSED_MATCH;
+        }
+        return StartConflict.TEAM_IN_MATCH;
+    }
+
+    @Override
+    public Match remove(String homeTeam, String awayTeam) {
+        return matchRepository.removeMatch(matchKeyGenerator.generateKey(homeTeam, awayTeam));
+    }
+
+    @Override
+    public Match find(String homeTeam, String awayTeam) {
+        // Normalize team names to ensure consistent case
+        String normalizedHomeTeam = homeTeam.toLowerCase();
+        String normalizedAwayTeam = awayTeam.toLowerCase();
+
+        return matchRepository.getMatch(matchKeyGenerator.generateKey(normalizedHomeTeam, normalizedAwayTeam));
+    }
+
+    @Override
+    public boolean contains(String homeTeam, String awayTeam) {
+        return matchRepository.containsMatch(matchKeyGenerator.generateKey(homeTeam, awayTeam));
+    }
+}
@@ -0,0 +1,38 @@
+package org.worldcup.manager;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.TeamType;
+
+/**
+ * Receives the changes made to the scoreboard.
+ * Listeners are called on the thread that made the change, right after it was applied, so they must return quickly.
+ * Changes to different matches may be reported concurrently.
+ */
+public interface MatchEventListener {
+
+    /**
+     * Called after a match was started.
+     *
+     * @param match the started match
+     */
+    default void matchStarted(Match match) {
+    }
+
+    /**
+     * Called after a match was finished.
+     *
+     * @param match the finished match
+     */
+    default void matchFinished(Match match) {
+    }
+
+    /**
+     * Called after a goal or an infraction adjustment changed the score of a match.
+     *
+     * @param match the match whose score has changed
+     * @param teamType the team whose score has changed
+     * @param delta 1 for a goal, -1 for an infraction adjustment
+     */
+    default void scoreChanged(Match match, TeamType teamType, int delta) {
+    }
+}
@@ -1,13 +1,25 @@
 package org.worldcup.manager;
 
+import org.worldcup.repository.PackedKeyMatchRepository;
 import org.worldcup.util.MatchKeyGenerator;
 import org.worldcup.repository.MatchRepository;
 import org.worldcup.exceptions.ExistingMatchConflictException;
 import org.worldcup.exceptions.MatchAlreadyStartedException;
 import org.worldcup.exceptions.MatchNotFoundException;
 import org.worldcup.exceptions.TeamAlreadyInMatchException;
+import org.worldcup.metrics.MatchFinishEvent;
+import org.worldcup.metrics.MatchStartEvent;
+import org.worldcup.metrics.ScoreboardMetrics;
 import org.worldcup.model.Match;
 import org.worldcup.model.Score;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.util.PackedMatchKeyGenerator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * This class manages the matches between teams.
@@ -15,32 +27,76 @@ import org.worldcup.model.Score;
  */
 public class MatchManager {
     private final MatchRepository matchRepository;
-    private final MatchKeyGenerator matchKeyGenerator;
+    private final MatchStore matchStore;
+    private final AtomicLong startSequence = new AtomicLong();
+    private final LongSupplier startClock;
+    private final List<MatchEventListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ScoreboardMetrics metrics = ScoreboardMetrics.NONE;
 
     public MatchManager(MatchRepository matchRepository, MatchKeyGenerator matchKeyGenerator) {
+        this(matchRepository, new KeyedMatchStore(matchRepository, matchKeyGenerator), () -> 0);
+    }
+
+    /**
+     * Creates a match manager whose start sequences follow a clock, so that the matches of several managers sharing the
+     * clock can be ordered by when they started without the managers sharing a counter.
+     * A match started on the same tick as the previous one still gets a higher sequence.
+     *
+     * @param matchRepository the repository of the matches
+     * @param matchKeyGenerator the key generator
+     * @param startClock the clock, which must not go backwards
+     */
+    public MatchManager(MatchRepository matchRepository, MatchKeyGenerator matchKeyGenerator, LongSupplier startClock) {
+        this(matchRepository, new KeyedMatchStore(matchRepository, matchKeyGenerator), startClock);
+    }
+
+    /**
+     * Creates a match manager that identifies matches by interned team IDs instead of key strings.
+     * Teams are then matched ignoring case, and looking up a match does not allocate.
+     *
+     * @param matchRepository the repository keyed by packed team IDs
+     * @param matchKeyGenerator the key generator sharing the repository's team registry
+     */
+    public MatchManager(PackedKeyMatchRepository matchRepository, PackedMatchKeyGenerator matchKeyGenerator) {
+        this(matchRepository, new PackedKeyMatchStore(matchRepository, matchKeyGenerator), () -> 0);
+    }
+
+    private MatchManager(MatchRepository matchRepository, MatchStore matchStore, LongSupplier startClock) {
         this.matchRepository = matchRepository;
-        this.matchKeyGenerator = matchKeyGenerator;
+        this.matchStore = matchStore;
+        this.startClock = startClock;
+        // Continue after the matches a durable repository has recovered, so new matches still count as the most recent
+        this.startSequence.set(matchRepository.getAllMatches().stream().mapToLong(Match::startSequence).max().orElse(0));
     }
 
     /**
      * Starts a match between two teams.
+     * The repository reserves both teams and adds the match atomically, so matches between different teams start in parallel.
      *
      * @param homeTeam the name of the home team
      * @param awayTeam the name of the away team
      * @throws IllegalArgumentException if the home team name or away team name is null or empty
      * @throws IllegalArgumentException if the home team name is the same as the away team name
-     * @throws ExistingMatchConflictException if the match between the home team and away team is already started
+     * @throws MatchAlreadyStartedException if the match between the home team and away team is already started
+     * @throws ExistingMatchConflictException if the match between the home team and away team is already started but reversed
      * @throws TeamAlreadyInMatchException if either the home team or away team is already in a match
      */
-    public synchronized void startMatch(String homeTeam, String awayTeam) {
-        validateTeams(homeTeam, awayTeam);
-        if (matchRepository.containsMatch(generateKey(homeTeam, awayTeam))) {
-            throw new MatchAlreadyStartedException(homeTeam, awayTeam);
-        } else if (matchRepository.isTeamInAnyMatch(homeTeam) || matchRepository.isTeamInAnyMatch(awayTeam)){
-            throw new TeamAlreadyInMatchException(homeTeam, awayTeam);
+    public void startMatch(String homeTeam, String awayTeam) {
+        ScoreboardMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        MatchStartEvent event = new MatchStartEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            start(homeTeam, awayTeam);
+        } catch (RuntimeException e) {
+            failure = e;
+            metrics.recordRejection(e);
+            throw e;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.START, startNanos);
+            event.finish(homeTeam, awayTeam, failure);
         }
-        Match match = new Match(homeTeam, awayTeam, new Score());
-        matchRepository.addMatch(generateKey(homeTeam, awayTeam), match);
     }
 
     /**
@@ -51,13 +107,54 @@ public class MatchManager {
      * @throws IllegalArgumentException if the home team name or away team name is null or empty
      * @throws MatchNotFoundException if the match between the home team and away team is not found
      */
-    public synchronized void finishMatch(String homeTeam, String awayTeam) {
+    public void finishMatch(String homeTeam, String awayTeam) {
+        ScoreboardMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        MatchFinishEvent event = new MatchFinishEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            finish(homeTeam, awayTeam);
+        } catch (RuntimeException e) {
+            failure = e;
+            metrics.recordRejection(e);
+            throw e;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.FINISH, startNanos);
+            event.finish(homeTeam, awayTeam, failure);
+        }
+    }
+
+    private void start(String homeTeam, String awayTeam) {
+        validateTeams(homeTeam, awayTeam);
+        Match match = new Match(homeTeam, awayTeam, new Score(), nextStartSequence());
+        // Listeners get the instance the repository stored, which is the one later changes are reported for
+        MatchStore.StartConflict conflict = matchStore.add(homeTeam, awayTeam, match, this::matchStarted);
+        if (conflict == null) {
+            return;
+        }
+        switch (conflict) {
+            case SAME_MATCH -> throw new MatchAlreadyStartedException(homeTeam, awayTeam);
+            case REVERSED_MATCH -> throw new ExistingMatchConflictException(homeTeam, awayTeam);
+            default -> throw new TeamAlreadyInMatchException(homeTeam, awayTeam);
+        }
+    }
+
+    private void matchStarted(Match match) {
+        for (MatchEventListener listener : listeners) {
+            listener.matchStarted(match);
+        }
+    }
+
+    private void finish(String homeTeam, String awayTeam) {
         validateTeams(homeTeam, awayTeam);
-        if (matchRepository.containsMatch(generateKey(homeTeam, awayTeam))){
-            matchRepository.removeMatch(generateKey(homeTeam, awayTeam));
-        } else {
+        Match match = matchStore.remove(homeTeam, awayTeam);
+        if (match == null) {
             throw new MatchNotFoundException(homeTeam, awayTeam);
         }
+        for (MatchEventListener listener : listeners) {
+            listener.matchFinished(match);
+        }
     }
 
     /**
@@ -76,7 +173,7 @@ public class MatchManager {
             throw new IllegalArgumentException("Away team name cannot be null or empty");
         } else if (homeTeam.equals(awayTeam)) {
             throw new IllegalArgumentException("Home team and away team cannot be the same");
-        } else if (matchRepository.containsMatch(generateKey(awayTeam, homeTeam))) {
+        } else if (matchStore.contains(awayTeam, homeTeam)) {
             throw new ExistingMatchConflictException(homeTeam, awayTeam);
         }
     }
@@ -90,11 +187,23 @@ public class MatchManager {
      * @throws MatchNotFoundException if the match between the home team and away team is not found
      */
     public Match findMatch(String homeTeam, String awayTeam) {
-        // Normalize team names to ensure consistent case
-        String normalizedHomeTeam = homeTeam.toLowerCase();
-        String normalizedAwayTeam = awayTeam.toLowerCase();
+        ScoreboardMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        try {
+            return find(homeTeam, awayTeam);
+        } catch (RuntimeException e) {
+            metrics.recordRejection(e);
+            throw e;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.FIND, startNanos);
+        }
+    }
 
-        Match match = matchRepository.getMatch(generateKey(normalizedHomeTeam, normalizedAwayTeam));
+    /**
+     * Finds a match without timing the lookup, for operations that are timed as a whole.
+     */
+    Match find(String homeTeam, String awayTeam) {
+        Match match = matchStore.find(homeTeam, awayTeam);
         if (match == null){
             throw new MatchNotFoundException(homeTeam, awayTeam);
         }
@@ -102,14 +211,71 @@ public class MatchManager {
     }
 
     /**
-     * Generates a key for a match between two teams.
+     * Registers a listener for the changes made through this manager and its score managers.
      *
-     * @param homeTeam the name of the home team
-     * @param awayTeam the name of the away team
-     * @return the key for the match
+     * @param listener the listener to add
+     */
+    public void addListener(MatchEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MatchEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Records the latency and the rejections of the operations of this manager and its score managers.
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(ScoreboardMetrics metrics) {
+        metrics.bindBoardSize(matchRepository::countMatches);
+        this.metrics = metrics;
+    }
+
+    public ScoreboardMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Moves a match to its new position in the summary order after its score has changed, and notifies the listeners.
+     *
+     * @param match the match whose score has changed
+     * @param teamType the team whose score has changed
+     * @param delta 1 for a goal, -1 for an infraction adjustment
+     */
+    void scoreChanged(Match match, TeamType teamType, int delta) {
+        reorder(match);
+        for (MatchEventListener listener : listeners) {
+            listener.scoreChanged(match, teamType, delta);
+        }
+    }
+
+    /**
+     * Moves a match to its new position in the summary order once after a batch of score changes, and notifies the
+     * listeners of each change.
+     *
+     * @param match the match whose score has changed
+     * @param appliedEvents the events that changed the score, in the order they were applied
      */
-    private String generateKey(String homeTeam, String awayTeam) {
-        return matchKeyGenerator.generateKey(homeTeam, awayTeam);
+    void scoresChanged(Match match, List<ScoreEvent> appliedEvents) {
+        reorder(match);
+        for (MatchEventListener listener : listeners) {
+            for (ScoreEvent event : appliedEvents) {
+                listener.scoreChanged(match, event.teamType(), event.type() == ScoreEvent.Type.GOAL ? 1 : -1);
+            }
+        }
     }
 
+    private long nextStartSequence() {
+        long tick = startClock.getAsLong();
+        return startSequence.updateAndGet(previous -> Math.max(previous + 1, tick));
+    }
+
+    private void reorder(Match match) {
+        ScoreboardMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        matchRepository.reorderMatch(match);
+        metrics.stopTimer(ScoreboardMetrics.Operation.REORDER, startNanos);
+    }
 }
@@ -0,0 +1,42 @@
+package org.worldcup.manager;
+
+import org.worldcup.model.Match;
+
+import java.util.function.Consumer;
+
+/**
+ * Finds and stores matches by their team names on behalf of the {@link MatchManager}.
+ * Each implementation decides how team names are turned into repository keys.
+ */
+interface MatchStore {
+
+    /**
+     * Adds a match unless its key or one of its teams is already taken by a live match.
+     * The repository may store a copy of the match, so the instance it stored is passed to a callback.
+     *
+     * @param added receives the stored match once it is live, if it was added
+     * @return null if the match was added, otherwise the reason it was rejected
+     */
+    StartConflict add(String homeTeam, String awayTeam, Match match, Consumer<Match> added);
+
+    /**
+     * @return the removed match, or null if there was no such match
+     */
+    Match remove(String homeTeam, String awayTeam);
+
+    /**
+     * @return the match, or null if there is no such match
+     */
+    Match find(String homeTeam, String awayTeam);
+
+    boolean contains(String homeTeam, String awayTeam);
+
+    /**
+     * The reasons a match cannot be started.
+     */
+    enum StartConflict {
+        SAME_MATCH,
+        REVERSED_MATCH,
+        TEAM_IN_MATCH
+    }
+}
@@ -0,0 +1,59 @@
+package org.worldcup.manager;
+
+import org.worldcup.model.Match;
+import org.worldcup.repository.PackedKeyMatchRepository;
+import org.worldcup.util.PackedMatchKeyGenerator;
+
+import java.util.function.Consumer;
+
+/**
+ * Stores matches in a {@link PackedKeyMatchRepository} under packed team ID keys.
+ * Only starting a match may register new teams; every other operation is an allocation-free lookup.
+ */
+class PackedKeyMatchStore implements MatchStore {
+    private final PackedKeyMatchRepository matchRepository;
+    private final PackedMatchKeyGenerator matchKeyGenerator;
+
+    PackedKeyMatchStore(PackedKeyMatchRepository matchRepository, PackedMatchKeyGenerator matchKeyGenerator) {
+        this.matchRepository = matchRepository;
+        this.matchKeyGenerator = matchKeyGenerator;
+    }
+
+    @Override
+    public StartConflict add(String homeTeam, String awayTeam, Match match, Consumer<Match> added) {
+        long key = matchKeyGenerator.registerKey(homeTeam, awayTeam);
+        int homeId = PackedMatchKeyGenerator.homeId(key);
+        int awayId = PackedMatchKeyGenerator.awayId(key);
+        if (homeId == awayId) {
+            throw new IllegalArgumentException("Home team and away team cannot be the same");
+        }
+        long conflictingKey = matchRepository.addMatch(key, match);
+        if (conflictingKey == PackedMatchKeyGenerator.NO_KEY) {
+            added.accept(match);
+            return null;
+        } else if (conflictingKey == key) {
+            return StartConflict.SAME_MATCH;
+        } else if (conflictingKey == PackedMatchKeyGenerator.packKey(awayId, homeId)) {
+            return StartConflict.REVERSED_MATCH;
+        }
+        return StartConflict.TEAM_IN_MATCH;
+    }
+
+    @Override
+    public Match remove(String homeTeam, String awayTeam) {
+        long key = matchKeyGenerator.findKey(homeTeam, awayTeam);
+        return key == PackedMatchKeyGenerator.NO_KEY ? null : matchRepository.removeMatch(key);
+    }
+
+    @Override
+    public Match find(String homeTeam, String awayTeam) {
+        long key = matchKeyGenerator.findKey(homeTeam, awayTeam);
+        return key == PackedMatchKeyGenerator.NO_KEY ? null : matchRepository.getMatch(key);
+    }
+
+    @Override
+    public boolean contains(String homeTeam, String awayTeam) {
+        long key = matchKeyGenerator.findKey(homeTeam, awayTeam);
+        return key != PackedMatchKeyGenerator.NO_KEY && matchRepository.containsMatch(key);
+    }
+}
@@ -1,8 +1,21 @@
 package org.worldcup.manager;
 
+import org.worldcup.exceptions.ExistingMatchConflictException;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.metrics.InfractionAdjustmentEvent;
+import org.worldcup.metrics.ScoreUpdateEvent;
+import org.worldcup.metrics.ScoreboardMetrics;
 import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.ScoreEvent;
 import org.worldcup.model.TeamType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class manages the scores of matches.
  * It allows the score of a match to be retrieved and updated.
@@ -22,28 +35,35 @@ public class ScoreManager {
      * Updates the score of a match.
      * The score of the home team will be incremented by 1 if the home team scores.
      * The score of the away team will be incremented by 1 if the away team scores.
+     * The score is updated with a lock-free compare-and-set, so goals in different matches never block each other.
      *
      * @param homeTeam the name of the home team
      * @param awayTeam the name of the away team
      * @param teamType the team that scored
      * @throws IllegalArgumentException if the team type is null
      */
-    public synchronized void updateScore(String homeTeam, String awayTeam, TeamType teamType) {
-        matchManager.validateTeams(homeTeam, awayTeam);
-        if (teamType == null) {
-            throw new IllegalArgumentException("Invalid team type");
-        }
-        Match match = matchManager.findMatch(homeTeam, awayTeam);
-        switch (teamType) {
-            case HOME_TEAM -> match.score().incrementHomeScore();
-            case AWAY_TEAM -> match.score().incrementAwayScore();
-            default -> throw new IllegalArgumentException("Invalid team type.");
+    public void updateScore(String homeTeam, String awayTeam, TeamType teamType) {
+        ScoreboardMetrics metrics = matchManager.getMetrics();
+        long startNanos = metrics.startTimer();
+        ScoreUpdateEvent event = new ScoreUpdateEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            score(homeTeam, awayTeam, teamType);
+        } catch (RuntimeException e) {
+            failure = e;
+            metrics.recordRejection(e);
+            throw e;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.UPDATE, startNanos);
+            event.finish(homeTeam, awayTeam, teamType, failure);
         }
     }
 
     /**
      * Adjusts the score of a match for an infraction. Since the score may be wrong due to an infraction such as a foul, offside, or handball, this method allows the score to be adjusted.
      * The score of the team that committed the infraction will be decremented by 1 if the score is greater than 0.
+     * The check and the decrement happen in one atomic step, so concurrent goals cannot interfere with it.
      *
      * @param homeTeam the name of the home team
      * @param awayTeam the name of the away team
@@ -52,27 +72,190 @@ public class ScoreManager {
      * @throws IllegalStateException if the score of the home team or away team is already at the minimum
      */
     public void adjustScoreForInfraction(String homeTeam, String awayTeam, TeamType teamType) {
+        ScoreboardMetrics metrics = matchManager.getMetrics();
+        long startNanos = metrics.startTimer();
+        InfractionAdjustmentEvent event = new InfractionAdjustmentEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            adjust(homeTeam, awayTeam, teamType);
+        } catch (RuntimeException e) {
+            failure = e;
+            metrics.recordRejection(e);
+            throw e;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.ADJUST, startNanos);
+            event.finish(homeTeam, awayTeam, teamType, failure);
+        }
+    }
+
+    /**
+     * Applies a batch of goals and infraction adjustments, as delivered by a feed.
+     * The events are grouped by match. Each match is validated and looked up once, its events are applied in their
+     * order with a single compare-and-set, and it is reordered in the summary once.
+     * Unlike the single-event methods, this method does not throw for a bad event but reports it in the results:
+     * an infraction is ignored when the score is already zero, as is a goal when the score is at its maximum.
+     * The batch is timed as one {@link ScoreboardMetrics.Operation#BATCH}, and each match that cannot be found or has
+     * invalid teams is counted as a rejection.
+     *
+     * @param events the events to apply
+     * @return the result of each event, in the order of the events
+     */
+    public List<ScoreEvent.Result> applyBatch(List<ScoreEvent> events) {
+        ScoreboardMetrics metrics = matchManager.getMetrics();
+        long startNanos = metrics.startTimer();
+        try {
+            ScoreEvent.Result[] results = new ScoreEvent.Result[events.size()];
+            Map<MatchTeams, EventGroup> groups = new LinkedHashMap<>();
+            for (int i = 0; i < results.length; i++) {
+                ScoreEvent event = events.get(i);
+                if (event == null || event.teamType() == null || event.type() == null) {
+                    results[i] = ScoreEvent.Result.INVALID;
+                } else {
+                    groups.computeIfAbsent(new MatchTeams(event.homeTeam(), event.awayTeam()), teams -> new EventGroup()).add(i);
+                }
+            }
+            for (Map.Entry<MatchTeams, EventGroup> group : groups.entrySet()) {
+                applyGroup(group.getKey(), group.getValue(), events, results, metrics);
+            }
+            return Arrays.asList(results);
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.BATCH, startNanos);
+        }
+    }
+
+    /**
+     * Applies a goal or an infraction adjustment to a match that was looked up beforehand.
+     * Like {@link #applyBatch(List)}, it reports a goal or an infraction that cannot be applied instead of throwing.
+     *
+     * @param match the match, as found by {@link MatchManager#findMatch(String, String)}
+     * @param event the event, whose teams are not checked again
+     * @return the result of the event
+     */
+    public ScoreEvent.Result apply(Match match, ScoreEvent event) {
+        if (event.teamType() == null || event.type() == null) {
+            return ScoreEvent.Result.INVALID;
+        }
+        boolean home = event.teamType() == TeamType.HOME_TEAM;
+        if (event.type() == ScoreEvent.Type.GOAL) {
+            try {
+                if (home) {
+                    match.score().incrementHomeScore();
+                } else {
+                    match.score().incrementAwayScore();
+                }
+            } catch (IllegalStateException e) {
+                return ScoreEvent.Result.SCORE_AT_MAXIMUM;
+            }
+        } else if (!(home ? match.score().tryDecrementHomeScore() : match.score().tryDecrementAwayScore())) {
+            return ScoreEvent.Result.SCORE_AT_MINIMUM;
+        }
+        matchManager.scoreChanged(match, event.teamType(), event.type() == ScoreEvent.Type.GOAL ? 1 : -1);
+        return ScoreEvent.Result.APPLIED;
+    }
+
+    private void score(String homeTeam, String awayTeam, TeamType teamType) {
+        matchManager.validateTeams(homeTeam, awayTeam);
+        if (teamType == null) {
+            throw new IllegalArgumentException("Invalid team type");
+        }
+        Match match = matchManager.find(homeTeam, awayTeam);
+        switch (teamType) {
+            case HOME_TEAM -> match.score().incrementHomeScore();
+            case AWAY_TEAM -> match.score().incrementAwayScore();
+            default -> throw new IllegalArgumentException("Invalid team type.");
+        }
+        matchManager.scoreChanged(match, teamType, 1);
+    }
+
+    private void adjust(String homeTeam, String awayTeam, TeamType teamType) {
         if (teamType == null) {
             throw new IllegalArgumentException("Team type cannot be null");
         }
-        Match match = matchManager.findMatch(homeTeam, awayTeam);
+        Match match = matchManager.find(homeTeam, awayTeam);
         switch (teamType) {
             case HOME_TEAM -> {
-                if (match.score().getHomeScore() > 0) {
-                    match.score().decrementHomeScore();
-                } else {
+                if (!match.score().tryDecrementHomeScore()) {
                     throw new IllegalStateException("Cannot adjust score for infraction: Home team score is already at minimum.");
                 }
             }
             case AWAY_TEAM -> {
-                if (match.score().getAwayScore() > 0) {
-                    match.score().decrementAwayScore();
-                } else {
+                if (!match.score().tryDecrementAwayScore()) {
                     throw new IllegalStateException("Cannot adjust score for infraction: Away team score is already at minimum.");
                 }
             }
             default -> throw new IllegalArgumentException("Invalid team type");
         }
+        matchManager.scoreChanged(match, teamType, -1);
+    }
+
+    private void applyGroup(MatchTeams teams, EventGroup group, List<ScoreEvent> events, ScoreEvent.Result[] results,
+                            ScoreboardMetrics metrics) {
+        Match match;
+        try {
+            matchManager.validateTeams(teams.homeTeam(), teams.awayTeam());
+            match = matchManager.find(teams.homeTeam(), teams.awayTeam());
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(e);
+            group.fill(results, ScoreEvent.Result.INVALID);
+            return;
+        } catch (MatchNotFoundException | ExistingMatchConflictException e) {
+            metrics.recordRejection(e);
+            group.fill(results, ScoreEvent.Result.MATCH_NOT_FOUND);
+            return;
+        }
+
+        match.score().updateState(state -> {
+            long next = state;
+            for (int i = 0; i < group.count; i++) {
+                int index = group.indexes[i];
+                ScoreEvent event = events.get(index);
+                int score = Score.score(next, event.teamType());
+                if (event.type() == ScoreEvent.Type.GOAL && score == Score.MAX_SCORE) {
+                    results[index] = ScoreEvent.Result.SCORE_AT_MAXIMUM;
+                } else if (event.type() == ScoreEvent.Type.INFRACTION && score == 0) {
+                    results[index] = ScoreEvent.Result.SCORE_AT_MINIMUM;
+                } else {
+                    next = Score.withScore(next, event.teamType(), event.type() == ScoreEvent.Type.GOAL ? score + 1 : score - 1);
+                    results[index] = ScoreEvent.Result.APPLIED;
+                }
+            }
+            return next;
+        });
+
+        List<ScoreEvent> appliedEvents = new ArrayList<>(group.count);
+        for (int i = 0; i < group.count; i++) {
+            if (results[group.indexes[i]] == ScoreEvent.Result.APPLIED) {
+                appliedEvents.add(events.get(group.indexes[i]));
+            }
+        }
+        if (!appliedEvents.isEmpty()) {
+            matchManager.scoresChanged(match, appliedEvents);
+        }
+    }
+
+    private record MatchTeams(String homeTeam, String awayTeam) {
+    }
+
+    /**
+     * The positions of the events of one match in the batch.
+     */
+    private static final class EventGroup {
+        private int[] indexes = new int[4];
+        private int count;
+
+        private void add(int index) {
+            if (count == indexes.length) {
+                indexes = Arrays.copyOf(indexes, count * 2);
+            }
+            indexes[count++] = index;
+        }
+
+        private void fill(ScoreEvent.Result[] results, ScoreEvent.Result result) {
+            for (int i = 0; i < count; i++) {
+                results[indexes[i]] = result;
+            }
+        }
     }
 
 }
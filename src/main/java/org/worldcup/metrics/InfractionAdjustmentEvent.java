@@ -0,0 +1,14 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A goal was taken back for an infraction. Recorded when it took longer than 100 microseconds, unless a recording sets another threshold.
+ */
+@Name("org.worldcup.InfractionAdjustment")
+@Label("Infraction Adjustment")
+@Threshold("100 us")
+public class InfractionAdjustmentEvent extends ScoreChangeEvent {
+}
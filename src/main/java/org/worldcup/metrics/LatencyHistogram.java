@@ -0,0 +1,105 @@
+package org.worldcup.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in logarithmic buckets: four buckets per power of two, so a bucket is at most 25% wide whatever the
+ * magnitude. Recording a latency is a few atomic increments and never allocates.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one latency. Negative latencies, which a clock adjustment may produce, count as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long latency = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(latency));
+        totalNanos.add(latency);
+        if (latency > maxNanos.get()) {
+            maxNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    /**
+     * Copies the counts. Latencies recorded concurrently may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+            count += bucketCounts[i];
+        }
+        return new Snapshot(count, totalNanos.sum(), maxNanos.get(), bucketCounts);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the highest latency that falls into a bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * The counts of a histogram at one point in time.
+     *
+     * @param count the number of recorded latencies
+     * @param totalNanos the sum of the recorded latencies
+     * @param maxNanos the highest recorded latency
+     * @param bucketCounts the number of latencies per bucket
+     */
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] bucketCounts) {
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls into, capped by the highest latency.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in nanoseconds, or 0 if nothing was recorded
+         */
+        public long percentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
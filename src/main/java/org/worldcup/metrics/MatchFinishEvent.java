@@ -0,0 +1,14 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A match was finished. Recorded when it took longer than 100 microseconds, unless a recording sets another threshold.
+ */
+@Name("org.worldcup.MatchFinish")
+@Label("Match Finish")
+@Threshold("100 us")
+public class MatchFinishEvent extends MatchOperationEvent {
+}
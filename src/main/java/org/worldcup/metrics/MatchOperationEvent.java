@@ -0,0 +1,50 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base of the JDK Flight Recorder events of the operations on one match.
+ * An event is begun before the operation and finished after it, and is only recorded when a recording has it enabled
+ * and the operation took longer than its threshold, so fast operations cost no more than the timestamps.
+ */
+@Category({"World Cup", "Scoreboard"})
+@StackTrace(false)
+public abstract class MatchOperationEvent extends Event {
+    @Label("Home Team")
+    String homeTeam;
+
+    @Label("Away Team")
+    String awayTeam;
+
+    @Label("Rejection")
+    @Description("The simple name of the exception the operation was rejected with, if it was")
+    String rejection;
+
+    /**
+     * Ends the event and records it if it is enabled and over its threshold.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param failure the exception the operation threw, or null if it succeeded
+     */
+    public void finish(String homeTeam, String awayTeam, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            setOperation(homeTeam, awayTeam, failure);
+            commit();
+        }
+    }
+
+    /**
+     * Sets the fields of the operation, once the event is known to be committed.
+     */
+    void setOperation(String homeTeam, String awayTeam, RuntimeException failure) {
+        this.homeTeam = homeTeam;
+        this.awayTeam = awayTeam;
+        this.rejection = failure == null ? null : failure.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,48 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.worldcup.model.Match;
+
+/**
+ * An update of a repository's summary order that was slow enough to have waited for a concurrent update of the same
+ * match. The repositories take no other locks, so this is where their writers contend.
+ * Recorded when it took longer than 50 microseconds, unless a recording sets another threshold.
+ */
+@Name("org.worldcup.RepositoryContention")
+@Label("Repository Contention")
+@Category({"World Cup", "Scoreboard"})
+@StackTrace(false)
+@Threshold("50 us")
+public class RepositoryContentionEvent extends Event {
+    @Label("Operation")
+    @Description("The update of the summary order: add, remove or reorder")
+    String operation;
+
+    @Label("Home Team")
+    String homeTeam;
+
+    @Label("Away Team")
+    String awayTeam;
+
+    /**
+     * Ends the event and records it if it is enabled and over its threshold.
+     *
+     * @param operation the update of the summary order
+     * @param match the updated match
+     */
+    public void finish(String operation, Match match) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.homeTeam = match.homeTeam();
+            this.awayTeam = match.awayTeam();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Label;
+import org.worldcup.model.TeamType;
+
+/**
+ * The base of the events of an operation that changes the score of one team.
+ */
+public abstract class ScoreChangeEvent extends MatchOperationEvent {
+    @Label("Team")
+    String team;
+
+    /**
+     * Ends the event and records it if it is enabled and over its threshold.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param teamType the team whose score was changed
+     * @param failure the exception the operation threw, or null if it succeeded
+     */
+    public void finish(String homeTeam, String awayTeam, TeamType teamType, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            team = teamType == null ? null : teamType.name();
+            setOperation(homeTeam, awayTeam, failure);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A goal was scored. Recorded when it took longer than 100 microseconds, unless a recording sets another threshold.
+ */
+@Name("org.worldcup.ScoreUpdate")
+@Label("Score Update")
+@Threshold("100 us")
+public class ScoreUpdateEvent extends ScoreChangeEvent {
+}
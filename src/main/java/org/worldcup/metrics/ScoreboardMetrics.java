@@ -0,0 +1,228 @@
+package org.worldcup.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records the latency of each scoreboard operation in a {@link LatencyHistogram}, and counts rejected operations by
+ * exception type. Read the figures with {@link #snapshot()}, or register the metrics as a platform MBean.
+ * <p>
+ * Recording can be switched on and off at any time. While it is off, an operation only pays for one volatile read.
+ * The {@link Operation#REORDER} latency is the time spent moving a match in the summary index after a score change,
+ * which includes waiting for another update of the same match: the scoreboard takes no other lock on its hot paths.
+ * The {@link Operation#BATCH} latency is the time to apply a whole batch of feed events.
+ */
+public class ScoreboardMetrics implements ScoreboardMetricsMXBean {
+    /**
+     * Metrics that never record, used until a manager is given its own.
+     */
+    public static final ScoreboardMetrics NONE = new ScoreboardMetrics(false);
+
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    public enum Operation {
+        START,
+        FINISH,
+        UPDATE,
+        ADJUST,
+        FIND,
+        SUMMARY,
+        REORDER,
+        BATCH
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile IntSupplier boardSize = () -> 0;
+
+    public ScoreboardMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording on or off. The figures recorded so far are kept.
+     *
+     * @param enabled true to record
+     * @throws UnsupportedOperationException if these are the {@link #NONE} metrics
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (this == NONE) {
+            throw new UnsupportedOperationException("The disabled metrics cannot be enabled");
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sets where the board size is read from, usually the repository's match count.
+     *
+     * @param boardSize the source of the board size
+     */
+    public void bindBoardSize(IntSupplier boardSize) {
+        if (this != NONE) {
+            this.boardSize = boardSize;
+        }
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the value to pass to {@link #stopTimer(Operation, long)}
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the latency of an operation, unless recording was off when it started.
+     *
+     * @param operation the timed operation
+     * @param startNanos the value returned by {@link #startTimer()}
+     */
+    public void stopTimer(Operation operation, long startNanos) {
+        if (startNanos != NOT_TIMED) {
+            histograms[operation.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Counts an operation rejected with an exception.
+     *
+     * @param exception the exception the operation threw
+     */
+    public void recordRejection(RuntimeException exception) {
+        if (enabled) {
+            rejections.computeIfAbsent(exception.getClass().getSimpleName(), type -> new LongAdder()).increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<Operation, LatencyHistogram.Snapshot> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, histograms[operation.ordinal()].snapshot());
+        }
+        Map<String, Long> rejectionCounts = new TreeMap<>();
+        rejections.forEach((type, count) -> rejectionCounts.put(type, count.sum()));
+        return new Snapshot(enabled, getBoardSize(), latencies, rejectionCounts);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@code org.worldcup:type=ScoreboardMetrics,name=<name>}.
+     *
+     * @param name the name telling several scoreboards apart
+     * @return the name the metrics were registered under
+     * @throws IllegalStateException if the metrics cannot be registered, for example because the name is taken
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the scoreboard metrics as " + name, e);
+        }
+    }
+
+    public void unregister(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister the scoreboard metrics " + name, e);
+        }
+    }
+
+    @Override
+    public int getBoardSize() {
+        return boardSize.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        return byOperation(LatencyHistogram.Snapshot::count);
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencyNanos() {
+        return byOperationAsDouble(LatencyHistogram.Snapshot::meanNanos);
+    }
+
+    @Override
+    public Map<String, Long> getMedianLatencyNanos() {
+        return byOperation(histogram -> histogram.percentileNanos(50));
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos() {
+        return byOperation(histogram -> histogram.percentileNanos(99));
+    }
+
+    @Override
+    public Map<String, Long> getP999LatencyNanos() {
+        return byOperation(histogram -> histogram.percentileNanos(99.9));
+    }
+
+    @Override
+    public Map<String, Long> getMaxLatencyNanos() {
+        return byOperation(LatencyHistogram.Snapshot::maxNanos);
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        return snapshot().rejections();
+    }
+
+    private Map<String, Long> byOperation(ToLongFunction<LatencyHistogram.Snapshot> figure) {
+        Map<String, Long> figures = new TreeMap<>();
+        for (Operation operation : Operation.values()) {
+            figures.put(operation.name(), figure.applyAsLong(histograms[operation.ordinal()].snapshot()));
+        }
+        return figures;
+    }
+
+    private Map<String, Double> byOperationAsDouble(ToDoubleFunction<LatencyHistogram.Snapshot> figure) {
+        Map<String, Double> figures = new TreeMap<>();
+        for (Operation operation : Operation.values()) {
+            figures.put(operation.name(), figure.applyAsDouble(histograms[operation.ordinal()].snapshot()));
+        }
+        return figures;
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("org.worldcup:type=ScoreboardMetrics,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * The metrics at one point in time.
+     *
+     * @param enabled whether recording was on
+     * @param boardSize the number of live matches
+     * @param latencies the latency histogram of each operation
+     * @param rejections the number of rejected operations, keyed by the simple name of the exception they threw
+     */
+    public record Snapshot(boolean enabled, int boardSize, Map<Operation, LatencyHistogram.Snapshot> latencies,
+                           Map<String, Long> rejections) {
+    }
+}
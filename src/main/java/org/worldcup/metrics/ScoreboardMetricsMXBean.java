@@ -0,0 +1,32 @@
+package org.worldcup.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link ScoreboardMetrics}. Latency maps are keyed by operation name.
+ */
+public interface ScoreboardMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getBoardSize();
+
+    Map<String, Long> getOperationCounts();
+
+    Map<String, Double> getMeanLatencyNanos();
+
+    Map<String, Long> getMedianLatencyNanos();
+
+    Map<String, Long> getP99LatencyNanos();
+
+    Map<String, Long> getP999LatencyNanos();
+
+    Map<String, Long> getMaxLatencyNanos();
+
+    /**
+     * @return the number of rejected operations, keyed by the simple name of the exception they threw
+     */
+    Map<String, Long> getRejections();
+}
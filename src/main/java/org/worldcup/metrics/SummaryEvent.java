@@ -0,0 +1,41 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A summary was read. Recorded when it took longer than 1 millisecond, unless a recording sets another threshold.
+ */
+@Name("org.worldcup.Summary")
+@Label("Summary")
+@Category({"World Cup", "Scoreboard"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class SummaryEvent extends Event {
+    @Label("Board Size")
+    @Description("The number of matches in the summary")
+    int boardSize;
+
+    @Label("Board Version")
+    long version;
+
+    /**
+     * Ends the event and records it if it is enabled and over its threshold.
+     *
+     * @param boardSize the number of matches in the summary
+     * @param version the version of the board the summary was read at
+     */
+    public void finish(int boardSize, long version) {
+        end();
+        if (shouldCommit()) {
+            this.boardSize = boardSize;
+            this.version = version;
+            commit();
+        }
+    }
+}
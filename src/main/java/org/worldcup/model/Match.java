@@ -2,12 +2,29 @@ package org.worldcup.model;
 
 /**
  * This class represents a match between two teams.
- * It contains the home team, the away team, the score, and the start time of the match.
+ * It contains the home team, the away team, the score, and the start sequence of the match.
+ * The start sequence grows monotonically, so a match with a higher sequence started later.
  */
-public record Match(String homeTeam, String awayTeam, Score score) {
+public record Match(String homeTeam, String awayTeam, Score score, long startSequence) {
+
+    /**
+     * Gets the rendered summary line of the match at its current score.
+     * The line is cached on the score and only rendered again after the score has changed.
+     *
+     * @return the line
+     */
+    public MatchLine line() {
+        long state = score.getState();
+        MatchLine line = score.renderedLine;
+        if (line == null || line.scoreState() != state) {
+            line = MatchLine.render(homeTeam, awayTeam, state);
+            score.renderedLine = line;
+        }
+        return line;
+    }
 
     @Override
     public String toString() {
-        return String.format("%s %d - %s %d", homeTeam, score.getHomeScore(), awayTeam, score.getAwayScore());
+        return line().text();
     }
 }
@@ -0,0 +1,56 @@
+package org.worldcup.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The rendered summary line of a match at one score, such as "Home 1 - Away 2", as text and as UTF-8 bytes.
+ * A match caches its line until its score changes, so summaries reuse the line instead of formatting it again.
+ */
+public final class MatchLine {
+    private final long scoreState;
+    private final String text;
+    private final byte[] utf8;
+
+    private MatchLine(long scoreState, String text) {
+        this.scoreState = scoreState;
+        this.text = text;
+        this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static MatchLine render(String homeTeam, String awayTeam, long scoreState) {
+        return new MatchLine(scoreState, format(homeTeam, Score.homeScore(scoreState), awayTeam, Score.awayScore(scoreState)));
+    }
+
+    /**
+     * Formats a summary line. Scores are always written with ASCII digits, whatever the default locale.
+     */
+    private static String format(String homeTeam, int homeScore, String awayTeam, int awayScore) {
+        return homeTeam + ' ' + homeScore + " - " + awayTeam + ' ' + awayScore;
+    }
+
+    /**
+     * @return the packed score the line was rendered for, see {@link Score#getState()}
+     */
+    public long scoreState() {
+        return scoreState;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Gets the line encoded as UTF-8.
+     * The array is shared by every reader of the line and must not be modified.
+     *
+     * @return the encoded line
+     */
+    public byte[] utf8() {
+        return utf8;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -1,39 +1,196 @@
 package org.worldcup.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongUnaryOperator;
+
 /**
  * Represents the score of a match.
- * The score is represented by two integers: homeScore and awayScore.
+ * The home score, the away score and a version counter are packed into one 64-bit state word, so the score is updated
+ * with a single compare-and-set and both scores can be read consistently without locking.
+ * The away score takes the lowest 24 bits, the home score the next 24 bits and the version the highest 16 bits.
+ * The version grows on every change and wraps around.
+ * Subclasses may keep the state word elsewhere, such as in a memory-mapped file, by overriding {@link #getState()} and
+ * {@link #compareAndSetState(long, long)}.
  */
 public class Score {
-    private int homeScore = 0;
-    private int awayScore = 0;
+    public static final int MAX_SCORE = (1 << 24) - 1;
+
+    private static final int HOME_SHIFT = 24;
+    private static final int AWAY_SHIFT = 0;
+    private static final int VERSION_SHIFT = 48;
+    private static final long SCORE_MASK = MAX_SCORE;
+    private static final long VERSION_INCREMENT = 1L << VERSION_SHIFT;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Score.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused") // accessed through the STATE var handle
+    private volatile long state;
+
+    /**
+     * The line last rendered for this score by its match, valid while the state has not changed.
+     */
+    volatile MatchLine renderedLine;
+
+    public Score() {
+    }
+
+    /**
+     * Creates a score restored from a packed state, for example one read back from a journal.
+     *
+     * @param state the packed state, as returned by {@link #getState()}
+     */
+    public Score(long state) {
+        this.state = state;
+    }
 
     public int getHomeScore() {
-        return homeScore;
+        return homeScore(getState());
     }
 
     public int getAwayScore() {
-        return awayScore;
+        return awayScore(getState());
+    }
+
+    /**
+     * Gets the packed state of the score.
+     * Use {@link #homeScore(long)}, {@link #awayScore(long)} and {@link #totalScore(long)} to read a consistent pair of scores from it.
+     *
+     * @return the packed state
+     */
+    public long getState() {
+        return (long) STATE.getVolatile(this);
+    }
+
+    /**
+     * Atomically replaces the packed state if it still equals the expected state.
+     *
+     * @param expectedState the state the score is expected to have
+     * @param newState the state to set
+     * @return true if the state was replaced
+     */
+    protected boolean compareAndSetState(long expectedState, long newState) {
+        return STATE.compareAndSet(this, expectedState, newState);
     }
 
     public void incrementHomeScore() {
-        homeScore++;
+        update(HOME_SHIFT, 1);
     }
 
     public void incrementAwayScore() {
-        awayScore++;
+        update(AWAY_SHIFT, 1);
     }
 
     public void decrementHomeScore() {
-        if (this.homeScore > 0) {
-            this.homeScore--;
-        }
+        tryDecrementHomeScore();
     }
 
     public void decrementAwayScore() {
-        if (this.awayScore > 0) {
-            this.awayScore--;
-        }
+        tryDecrementAwayScore();
+    }
+
+    /**
+     * Decrements the home score unless it is already zero.
+     *
+     * @return true if the score was decremented, false if it was already zero
+     */
+    public boolean tryDecrementHomeScore() {
+        return update(HOME_SHIFT, -1);
+    }
+
+    /**
+     * Decrements the away score unless it is already zero.
+     *
+     * @return true if the score was decremented, false if it was already zero
+     */
+    public boolean tryDecrementAwayScore() {
+        return update(AWAY_SHIFT, -1);
+    }
+
+    /**
+     * Atomically replaces the state with the result of the update function, in one compare-and-set.
+     * The function may be called again if the score changes concurrently, so it must not have side effects that
+     * cannot be repeated. Returning the state unchanged leaves the score untouched.
+     *
+     * @param update computes the new state from the current one, see {@link #withScore(long, TeamType, int)}
+     * @return the new state
+     */
+    public long updateState(LongUnaryOperator update) {
+        long current;
+        long next;
+        do {
+            current = getState();
+            next = update.applyAsLong(current);
+        } while (next != current && !compareAndSetState(current, next));
+        return next;
+    }
+
+    /**
+     * Gets the score of one team from a packed state.
+     */
+    public static int score(long state, TeamType teamType) {
+        return teamType == TeamType.HOME_TEAM ? homeScore(state) : awayScore(state);
+    }
+
+    /**
+     * Changes the score of one team in a packed state and advances its version.
+     *
+     * @param state the packed state
+     * @param teamType the team whose score changes
+     * @param score the new score, between 0 and {@link #MAX_SCORE}
+     * @return the new packed state
+     */
+    public static long withScore(long state, TeamType teamType, int score) {
+        int shift = teamType == TeamType.HOME_TEAM ? HOME_SHIFT : AWAY_SHIFT;
+        return ((state & ~(SCORE_MASK << shift)) | ((long) score << shift)) + VERSION_INCREMENT;
+    }
+
+    public static int homeScore(long state) {
+        return (int) ((state >>> HOME_SHIFT) & SCORE_MASK);
+    }
+
+    public static int awayScore(long state) {
+        return (int) ((state >>> AWAY_SHIFT) & SCORE_MASK);
+    }
+
+    public static int totalScore(long state) {
+        return homeScore(state) + awayScore(state);
+    }
+
+    public static int version(long state) {
+        return (int) (state >>> VERSION_SHIFT);
+    }
+
+    /**
+     * Adds the delta to one of the scores with a compare-and-set loop.
+     *
+     * @param shift the position of the score in the state word
+     * @param delta the amount to add
+     * @return true if the score was updated, false if it would have become negative
+     * @throws IllegalStateException if the score would exceed {@link #MAX_SCORE}
+     */
+    private boolean update(int shift, int delta) {
+        long current;
+        long next;
+        do {
+            current = getState();
+            long value = ((current >>> shift) & SCORE_MASK) + delta;
+            if (value < 0) {
+                return false;
+            } else if (value > SCORE_MASK) {
+                throw new IllegalStateException("Score cannot exceed " + MAX_SCORE);
+            }
+            next = ((current & ~(SCORE_MASK << shift)) | (value << shift)) + VERSION_INCREMENT;
+        } while (!compareAndSetState(current, next));
+        return true;
     }
 
 }
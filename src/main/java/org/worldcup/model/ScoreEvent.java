@@ -0,0 +1,42 @@
+package org.worldcup.model;
+
+/**
+ * A goal or an infraction adjustment for one team of a match, as delivered by a feed.
+ *
+ * @param homeTeam the name of the home team
+ * @param awayTeam the name of the away team
+ * @param teamType the team that scored, or that committed the infraction
+ * @param type whether the event is a goal or an infraction adjustment
+ */
+public record ScoreEvent(String homeTeam, String awayTeam, TeamType teamType, Type type) {
+
+    public static ScoreEvent goal(String homeTeam, String awayTeam, TeamType teamType) {
+        return new ScoreEvent(homeTeam, awayTeam, teamType, Type.GOAL);
+    }
+
+    public static ScoreEvent infraction(String homeTeam, String awayTeam, TeamType teamType) {
+        return new ScoreEvent(homeTeam, awayTeam, teamType, Type.INFRACTION);
+    }
+
+    public enum Type {
+        GOAL,
+        INFRACTION
+    }
+
+    /**
+     * The outcome of applying an event.
+     */
+    public enum Result {
+        APPLIED,
+        /** The event names no match in progress. */
+        MATCH_NOT_FOUND,
+        /** The event has missing or invalid teams, team type or type. */
+        INVALID,
+        /** The infraction was ignored because the score was already zero. */
+        SCORE_AT_MINIMUM,
+        /** The goal was ignored because the score was already at {@link Score#MAX_SCORE}. */
+        SCORE_AT_MAXIMUM,
+        /** The event was ignored because its feed sequence had already been used by the match, applied or not. */
+        DUPLICATE
+    }
+}
@@ -1,36 +1,112 @@
 package org.worldcup.repository;
 
+import org.worldcup.metrics.RepositoryContentionEvent;
 import org.worldcup.model.Match;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Represents an in-memory repository of matches.
  * Because it uses a ConcurrentHashMap, it is thread-safe.
+ * A secondary index from team name to match key is kept in sync with the matches, so team lookups take constant time.
+ * Teams are reserved in that index with atomic per-key operations, so matches between different teams are added and removed in parallel.
+ * A team held by a start or finish that is still in progress is awaited rather than reported as taken.
+ * Several repositories can share their team indexes, each team reserved in the index of the repository that owns it,
+ * so a team is kept out of two concurrent matches across all of them.
+ * The matches are also kept in summary order, so the summary can be read without sorting.
+ * Updates of the summary order that wait for a concurrent update of the same match are reported as
+ * {@link RepositoryContentionEvent}s.
  */
 public class InMemoryMatchRepository implements MatchRepository {
     private final ConcurrentHashMap<String, Match> matches = new ConcurrentHashMap<>();
+    private final Function<String, ConcurrentMap<String, String>> teamIndexes;
+    private final Predicate<String> isLive;
+    private final SummaryIndex summaryIndex = new SummaryIndex();
 
-    private final Lock lock = new ReentrantLock();
+    public InMemoryMatchRepository() {
+        ConcurrentMap<String, String> teamIndex = new ConcurrentHashMap<>();
+        teamIndexes = team -> teamIndex;
+        isLive = matches::containsKey;
+    }
+
+    /**
+     * Creates a repository whose teams are reserved in indexes shared with other repositories.
+     *
+     * @param teamIndexes gets the index, from team name to the key of the match that holds the team, that owns a team;
+     *                    every repository sharing the indexes must give the same index for a team
+     * @param isLive tells whether a key belongs to a match of any of the repositories sharing the indexes
+     */
+    public InMemoryMatchRepository(Function<String, ConcurrentMap<String, String>> teamIndexes, Predicate<String> isLive) {
+        this.teamIndexes = teamIndexes;
+        this.isLive = isLive;
+    }
 
     @Override
-    public void addMatch(String key, Match match) {
-        lock.lock();
-        try {
-            if (!containsMatch(key) && !isTeamInAnyMatch(match.homeTeam()) && !isTeamInAnyMatch(match.awayTeam())) {
-                matches.put(key, match);
-            }
-        } finally {
-            lock.unlock();
+    public String addMatch(String key, Match match) {
+        // Teams are reserved in name order, so two starts waiting for each other's pending reservation cannot deadlock
+        boolean homeFirst = match.homeTeam().compareTo(match.awayTeam()) < 0;
+        String firstTeam = homeFirst ? match.homeTeam() : match.awayTeam();
+        String secondTeam = homeFirst ? match.awayTeam() : match.homeTeam();
+        String conflictingKey = reserveTeam(firstTeam, key);
+        if (conflictingKey != null) {
+            return conflictingKey;
         }
+        conflictingKey = reserveTeam(secondTeam, key);
+        if (conflictingKey != null) {
+            releaseTeam(firstTeam, key);
+            return conflictingKey;
+        }
+        if (matches.putIfAbsent(key, match) != null) {
+            releaseTeam(match.homeTeam(), key);
+            releaseTeam(match.awayTeam(), key);
+            return key;
+        }
+        RepositoryContentionEvent event = new RepositoryContentionEvent();
+        event.begin();
+        summaryIndex.add(match, () -> matches.get(key) == match);
+        event.finish("add", match);
+        return null;
     }
 
     @Override
-    public void removeMatch(String key) {
-        matches.remove(key);
+    public Match removeMatch(String key) {
+        Match match = matches.remove(key);
+        if (match != null) {
+            RepositoryContentionEvent event = new RepositoryContentionEvent();
+            event.begin();
+            summaryIndex.remove(match);
+            event.finish("remove", match);
+            releaseTeam(match.homeTeam(), key);
+            releaseTeam(match.awayTeam(), key);
+        }
+        return match;
+    }
+
+    /**
+     * Reserves a team for a match.
+     * A reservation for a key that is not live belongs to a start or a finish that is still in progress, so it is awaited
+     * instead of reported: a start must never fail because of a match that never existed.
+     *
+     * @return null if the team was reserved, otherwise the key of the live match that holds the team
+     */
+    private String reserveTeam(String team, String key) {
+        ConcurrentMap<String, String> teamIndex = teamIndexes.apply(team);
+        while (true) {
+            String reservedBy = teamIndex.putIfAbsent(team, key);
+            if (reservedBy == null || isLive.test(reservedBy)) {
+                return reservedBy;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void releaseTeam(String team, String key) {
+        teamIndexes.apply(team).remove(team, key);
     }
 
     @Override
@@ -50,12 +126,44 @@ public class InMemoryMatchRepository implements MatchRepository {
 
     @Override
     public boolean isTeamInAnyMatch(String teamName) {
-        return matches.values().stream()
-                .anyMatch(match -> match.homeTeam().equals(teamName) || match.awayTeam().equals(teamName));
+        return teamIndexes.apply(teamName).containsKey(teamName);
     }
 
     @Override
     public Collection<Match> getAllMatches() {
         return matches.values();
     }
+
+    @Override
+    public void reorderMatch(Match match) {
+        RepositoryContentionEvent event = new RepositoryContentionEvent();
+        event.begin();
+        summaryIndex.reorder(match);
+        event.finish("reorder", match);
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrder() {
+        return summaryIndex.matches();
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrderAfter(int totalScore, long startSequence, String homeTeam) {
+        return summaryIndex.matchesAfter(new SummaryKey(totalScore, startSequence, homeTeam));
+    }
+
+    @Override
+    public Collection<Match> getSummarizedMatches() {
+        return summaryIndex.summarizedMatches();
+    }
+
+    @Override
+    public long getSummaryVersion() {
+        return summaryIndex.version();
+    }
+
+    @Override
+    public List<SummaryChange> getSummaryChangesSince(long sinceVersion) {
+        return summaryIndex.changesSince(sinceVersion);
+    }
 }
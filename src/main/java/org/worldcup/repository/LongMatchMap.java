@@ -0,0 +1,231 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent map from primitive long keys to matches, using open addressing with linear probing.
+ * The map is split into segments; writers lock their segment, while readers never lock and never allocate.
+ * Removed entries keep their key as a tombstone until the segment is rehashed.
+ * Key 0 is reserved to mark empty slots.
+ */
+class LongMatchMap {
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    LongMatchMap() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    Match get(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Associates the match with the key unless the key already has a match.
+     *
+     * @return the existing match, or null if the match was added
+     */
+    Match putIfAbsent(long key, Match match) {
+        long hash = hash(key);
+        return segmentFor(hash).putIfAbsent(key, hash, match);
+    }
+
+    /**
+     * Removes the match with the key.
+     *
+     * @return the removed match, or null if the key had no match
+     */
+    Match remove(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * Gets a weakly consistent view of the matches, in no particular order.
+     */
+    Collection<Match> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Match> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return LongMatchMap.this.size();
+            }
+        };
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * One table of the map.
+     * A slot is written value first and key second, so a reader that sees the key also sees the value.
+     */
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<Match> values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment {
+        private volatile Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private volatile int count;
+        private int usedSlots;
+
+        private Match get(long key, long hash) {
+            Table current = table;
+            for (int i = (int) hash & current.mask; ; i = (i + 1) & current.mask) {
+                long slotKey = current.keys.get(i);
+                if (slotKey == key) {
+                    return current.values.get(i);
+                } else if (slotKey == 0) {
+                    return null;
+                }
+            }
+        }
+
+        private synchronized Match putIfAbsent(long key, long hash, Match match) {
+            Table current = table;
+            for (int i = (int) hash & current.mask; ; i = (i + 1) & current.mask) {
+                long slotKey = current.keys.get(i);
+                if (slotKey == key) {
+                    Match existing = current.values.get(i);
+                    if (existing == null) {
+                        current.values.set(i, match);
+                        count++;
+                    }
+                    return existing;
+                } else if (slotKey == 0) {
+                    if ((usedSlots + 1) * 2 > current.keys.length()) {
+                        rehash();
+                        return putIfAbsent(key, hash, match);
+                    }
+                    current.values.set(i, match);
+                    current.keys.set(i, key);
+                    usedSlots++;
+                    count++;
+                    return null;
+                }
+            }
+        }
+
+        private synchronized Match remove(long key, long hash) {
+            Table current = table;
+            for (int i = (int) hash & current.mask; ; i = (i + 1) & current.mask) {
+                long slotKey = current.keys.get(i);
+                if (slotKey == key) {
+                    Match existing = current.values.getAndSet(i, null);
+                    if (existing != null) {
+                        count--;
+                    }
+                    return existing;
+                } else if (slotKey == 0) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Copies the live entries into a new table that is at most a quarter full, dropping the tombstones.
+         */
+        private void rehash() {
+            Table current = table;
+            int capacity = INITIAL_SEGMENT_CAPACITY;
+            while (capacity < (count + 1) * 4) {
+                capacity <<= 1;
+            }
+            Table rehashed = new Table(capacity);
+            for (int i = 0; i < current.keys.length(); i++) {
+                Match match = current.values.get(i);
+                if (match != null) {
+                    long key = current.keys.get(i);
+                    int slot = (int) hash(key) & rehashed.mask;
+                    while (rehashed.keys.get(slot) != 0) {
+                        slot = (slot + 1) & rehashed.mask;
+                    }
+                    rehashed.values.set(slot, match);
+                    rehashed.keys.set(slot, key);
+                }
+            }
+            usedSlots = count;
+            table = rehashed;
+        }
+    }
+
+    private final class ValueIterator implements Iterator<Match> {
+        private int segmentIndex;
+        private Table table = segments[0].table;
+        private int slot = -1;
+        private Match next;
+
+        private ValueIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Match next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Match current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null) {
+                slot++;
+                if (slot == table.values.length()) {
+                    segmentIndex++;
+                    if (segmentIndex == segments.length) {
+                        return;
+                    }
+                    table = segments[segmentIndex].table;
+                    slot = 0;
+                }
+                next = table.values.get(slot);
+            }
+        }
+    }
+}
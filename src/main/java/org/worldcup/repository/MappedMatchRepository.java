@@ -0,0 +1,373 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Represents a durable repository of matches stored in a memory-mapped file.
+ * Every live match occupies a fixed-width record in the file. Score updates are compare-and-set operations on the mapped
+ * record, so they survive a process restart without any serialization or system call per goal.
+ * Opening an existing file recovers the board by scanning the records, which takes milliseconds even for large boards.
+ * Call {@link #force()} to also make the file survive an operating system crash.
+ * <p>
+ * The file starts with a header, followed by chunks of {@value #SLOTS_PER_CHUNK} record slots. The status word of each
+ * slot forms the slot directory. The free list is kept in memory and rebuilt from the statuses on recovery, so a crash
+ * can never corrupt it. A finished match's slot is released right away, so the file grows with the live matches only.
+ * Its score is retired to a copy on the heap first, so a late goal for a finished match can never land in the record
+ * of a newer match.
+ * <p>
+ * The repository stores its own copy of each added match, backed by the mapped record; see
+ * {@link #addMatch(String, Match, Consumer)} to get hold of it.
+ * Lookups and reservations work like in {@link InMemoryMatchRepository}.
+ */
+public class MappedMatchRepository implements MatchRepository, Closeable {
+    public static final int MAX_NAME_BYTES = 128;
+
+    private static final int MAGIC = 0x57435342;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_VERSION_OFFSET = 4;
+    private static final int RECORD_SIZE_OFFSET = 8;
+    private static final int CHUNK_COUNT_OFFSET = 12;
+
+    private static final int MAX_KEY_BYTES = 2 * MAX_NAME_BYTES + 16;
+    private static final int SCORE_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int STATUS_OFFSET = 16;
+    private static final int HOME_LENGTH_OFFSET = 20;
+    private static final int AWAY_LENGTH_OFFSET = 22;
+    private static final int KEY_LENGTH_OFFSET = 24;
+    private static final int HOME_OFFSET = 32;
+    private static final int AWAY_OFFSET = HOME_OFFSET + MAX_NAME_BYTES;
+    private static final int KEY_OFFSET = AWAY_OFFSET + MAX_NAME_BYTES;
+    private static final int RECORD_SIZE = (KEY_OFFSET + MAX_KEY_BYTES + 63) & ~63;
+    private static final int SLOTS_PER_CHUNK = 1024;
+    private static final long CHUNK_SIZE = (long) SLOTS_PER_CHUNK * RECORD_SIZE;
+
+    private static final int FREE = 0;
+    private static final int LIVE = 1;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final Slots slots;
+    private final ConcurrentHashMap<String, Match> matches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> teamIndex = new ConcurrentHashMap<>();
+    private final SummaryIndex summaryIndex = new SummaryIndex();
+
+    /**
+     * Opens the repository stored in the given file, creating the file if it does not exist.
+     * The live matches stored in the file are recovered.
+     *
+     * @param file the file holding the matches
+     * @throws IOException if the file cannot be opened, or is not a scoreboard file
+     */
+    public MappedMatchRepository(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) == 0) {
+                header.putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+                header.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                header.putInt(CHUNK_COUNT_OFFSET, 0);
+                header.putInt(MAGIC_OFFSET, MAGIC);
+            } else if (header.getInt(MAGIC_OFFSET) != MAGIC
+                    || header.getInt(FORMAT_VERSION_OFFSET) != FORMAT_VERSION
+                    || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+                throw new IOException("Not a scoreboard file: " + file);
+            }
+            slots = new Slots(channel, header);
+            recover(header.getInt(CHUNK_COUNT_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String addMatch(String key, Match match) {
+        return addMatch(key, match, storedMatch -> {
+        });
+    }
+
+    /**
+     * Adds a copy of the match whose score lives in the mapped file, and passes that copy to the callback.
+     */
+    @Override
+    public String addMatch(String key, Match match, Consumer<Match> added) {
+        byte[] homeTeam = encode(match.homeTeam(), MAX_NAME_BYTES);
+        byte[] awayTeam = encode(match.awayTeam(), MAX_NAME_BYTES);
+        byte[] encodedKey = encode(key, MAX_KEY_BYTES);
+
+        // Teams are reserved in name order, so two starts waiting for each other's pending reservation cannot deadlock
+        boolean homeFirst = match.homeTeam().compareTo(match.awayTeam()) < 0;
+        String firstTeam = homeFirst ? match.homeTeam() : match.awayTeam();
+        String secondTeam = homeFirst ? match.awayTeam() : match.homeTeam();
+        String conflictingKey = reserveTeam(firstTeam, key);
+        if (conflictingKey != null) {
+            return conflictingKey;
+        }
+        conflictingKey = reserveTeam(secondTeam, key);
+        if (conflictingKey != null) {
+            teamIndex.remove(firstTeam, key);
+            return conflictingKey;
+        }
+
+        MappedScore score;
+        try {
+            score = slots.allocate();
+        } catch (RuntimeException e) {
+            teamIndex.remove(match.homeTeam(), key);
+            teamIndex.remove(match.awayTeam(), key);
+            throw e;
+        }
+        ByteBuffer chunk = slots.chunkOf(score.slot());
+        int offset = Slots.offsetOf(score.slot());
+        score.initialize(match.score().getState());
+        chunk.putLong(offset + SEQUENCE_OFFSET, match.startSequence());
+        chunk.putShort(offset + HOME_LENGTH_OFFSET, (short) homeTeam.length);
+        chunk.putShort(offset + AWAY_LENGTH_OFFSET, (short) awayTeam.length);
+        chunk.putShort(offset + KEY_LENGTH_OFFSET, (short) encodedKey.length);
+        chunk.put(offset + HOME_OFFSET, homeTeam);
+        chunk.put(offset + AWAY_OFFSET, awayTeam);
+        chunk.put(offset + KEY_OFFSET, encodedKey);
+        // The record only counts as live once it is complete
+        INT_VIEW.setRelease(chunk, offset + STATUS_OFFSET, LIVE);
+
+        Match storedMatch = new Match(match.homeTeam(), match.awayTeam(), score, match.startSequence());
+        if (matches.putIfAbsent(key, storedMatch) != null) {
+            INT_VIEW.setRelease(chunk, offset + STATUS_OFFSET, FREE);
+            slots.release(score.slot());
+            teamIndex.remove(match.homeTeam(), key);
+            teamIndex.remove(match.awayTeam(), key);
+            return key;
+        }
+        summaryIndex.add(storedMatch, () -> matches.get(key) == storedMatch);
+        added.accept(storedMatch);
+        return null;
+    }
+
+    @Override
+    public Match removeMatch(String key) {
+        Match match = matches.remove(key);
+        if (match != null) {
+            MappedScore score = (MappedScore) match.score();
+            INT_VIEW.setRelease(slots.chunkOf(score.slot()), Slots.offsetOf(score.slot()) + STATUS_OFFSET, FREE);
+            summaryIndex.remove(match);
+            score.retire();
+            slots.release(score.slot());
+            teamIndex.remove(match.homeTeam(), key);
+            teamIndex.remove(match.awayTeam(), key);
+        }
+        return match;
+    }
+
+    /**
+     * Reserves a team for a match, awaiting a reservation that belongs to a start or a finish still in progress.
+     *
+     * @return null if the team was reserved, otherwise the key of the live match that holds the team
+     */
+    private String reserveTeam(String team, String key) {
+        while (true) {
+            String reservedBy = teamIndex.putIfAbsent(team, key);
+            if (reservedBy == null || matches.containsKey(reservedBy)) {
+                return reservedBy;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public Match getMatch(String key) {
+        return matches.get(key);
+    }
+
+    @Override
+    public boolean containsMatch(String key) {
+        return matches.containsKey(key);
+    }
+
+    @Override
+    public int countMatches() {
+        return matches.size();
+    }
+
+    @Override
+    public boolean isTeamInAnyMatch(String teamName) {
+        return teamIndex.containsKey(teamName);
+    }
+
+    @Override
+    public Collection<Match> getAllMatches() {
+        return matches.values();
+    }
+
+    @Override
+    public void reorderMatch(Match match) {
+        summaryIndex.reorder(match);
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrder() {
+        return summaryIndex.matches();
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrderAfter(int totalScore, long startSequence, String homeTeam) {
+        return summaryIndex.matchesAfter(new SummaryKey(totalScore, startSequence, homeTeam));
+    }
+
+    @Override
+    public Collection<Match> getSummarizedMatches() {
+        return summaryIndex.summarizedMatches();
+    }
+
+    @Override
+    public long getSummaryVersion() {
+        return summaryIndex.version();
+    }
+
+    @Override
+    public List<SummaryChange> getSummaryChangesSince(long sinceVersion) {
+        return summaryIndex.changesSince(sinceVersion);
+    }
+
+    /**
+     * Writes all changes of the mapped file to the storage device.
+     */
+    public void force() {
+        slots.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Rebuilds the in-memory indexes from the live records of the file.
+     * A record that conflicts with an already recovered match can only be left over from a crash during a start, and is freed.
+     */
+    private void recover(int chunkCount) throws IOException {
+        for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+            ByteBuffer chunk = slots.mapChunk();
+            for (int slot = chunkIndex * SLOTS_PER_CHUNK; slot < (chunkIndex + 1) * SLOTS_PER_CHUNK; slot++) {
+                int offset = Slots.offsetOf(slot);
+                if ((int) INT_VIEW.getAcquire(chunk, offset + STATUS_OFFSET) != LIVE || !recoverMatch(chunk, offset, slot)) {
+                    INT_VIEW.setRelease(chunk, offset + STATUS_OFFSET, FREE);
+                    slots.release(slot);
+                }
+            }
+        }
+    }
+
+    private boolean recoverMatch(ByteBuffer chunk, int offset, int slot) {
+        String homeTeam = decode(chunk, offset + HOME_OFFSET, chunk.getShort(offset + HOME_LENGTH_OFFSET));
+        String awayTeam = decode(chunk, offset + AWAY_OFFSET, chunk.getShort(offset + AWAY_LENGTH_OFFSET));
+        String key = decode(chunk, offset + KEY_OFFSET, chunk.getShort(offset + KEY_LENGTH_OFFSET));
+        if (matches.containsKey(key) || teamIndex.containsKey(homeTeam) || teamIndex.containsKey(awayTeam)) {
+            return false;
+        }
+        MappedScore score = new MappedScore(chunk, offset + SCORE_OFFSET, slot);
+        Match match = new Match(homeTeam, awayTeam, score, chunk.getLong(offset + SEQUENCE_OFFSET));
+        matches.put(key, match);
+        teamIndex.put(homeTeam, key);
+        teamIndex.put(awayTeam, key);
+        summaryIndex.add(match, () -> true);
+        return true;
+    }
+
+    private static byte[] encode(String value, int maxBytes) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(String.format("Cannot store %s, it is longer than %d bytes", value, maxBytes));
+        }
+        return bytes;
+    }
+
+    private static String decode(ByteBuffer chunk, int offset, int length) {
+        byte[] bytes = new byte[length];
+        chunk.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Allocates record slots, mapping a new chunk of the file when all slots are taken.
+     */
+    private static final class Slots {
+        private final FileChannel channel;
+        private final MappedByteBuffer header;
+        private final List<MappedByteBuffer> chunks = new ArrayList<>();
+        private int[] freeSlots = new int[SLOTS_PER_CHUNK];
+        private int freeSlotCount;
+
+        private Slots(FileChannel channel, MappedByteBuffer header) {
+            this.channel = channel;
+            this.header = header;
+        }
+
+        private static int offsetOf(int slot) {
+            return (slot % SLOTS_PER_CHUNK) * RECORD_SIZE;
+        }
+
+        private synchronized ByteBuffer chunkOf(int slot) {
+            return chunks.get(slot / SLOTS_PER_CHUNK);
+        }
+
+        private synchronized MappedScore allocate() {
+            if (freeSlotCount == 0) {
+                try {
+                    mapChunk();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot grow the scoreboard file", e);
+                }
+                int firstSlot = (chunks.size() - 1) * SLOTS_PER_CHUNK;
+                for (int slot = firstSlot + SLOTS_PER_CHUNK - 1; slot >= firstSlot; slot--) {
+                    release(slot);
+                }
+                header.putInt(CHUNK_COUNT_OFFSET, chunks.size());
+            }
+            int slot = freeSlots[--freeSlotCount];
+            return new MappedScore(chunkOf(slot), offsetOf(slot) + SCORE_OFFSET, slot);
+        }
+
+        private synchronized void release(int slot) {
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+
+        private synchronized MappedByteBuffer mapChunk() throws IOException {
+            long position = HEADER_SIZE + chunks.size() * CHUNK_SIZE;
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK_SIZE);
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunks.add(chunk);
+            return chunk;
+        }
+
+        private synchronized void force() {
+            header.force();
+            chunks.forEach(MappedByteBuffer::force);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Score;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A score whose state word lives in a slot of a memory-mapped file.
+ * Updates are compare-and-set operations directly on the mapped memory, so a goal costs no serialization and no system call.
+ * <p>
+ * When its match is finished, the score is retired before its slot is released: it waits for the updates in flight,
+ * copies its final state to the heap and keeps working on that copy. A late goal for a finished match therefore never
+ * lands in the record of a newer match that reuses the slot.
+ */
+final class MappedScore extends Score {
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle WRITERS;
+    private static final VarHandle RETIRED_STATE;
+
+    private static final int RETIRING = -1;
+    private static final int RETIRED = -2;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRITERS = lookup.findVarHandle(MappedScore.class, "writers", int.class);
+            RETIRED_STATE = lookup.findVarHandle(MappedScore.class, "retiredState", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int slot;
+
+    /**
+     * The number of updates working on the mapped record, or {@link #RETIRING} or {@link #RETIRED}.
+     */
+    @SuppressWarnings("unused") // accessed through the WRITERS var handle
+    private volatile int writers;
+
+    @SuppressWarnings("unused") // accessed through the RETIRED_STATE var handle
+    private volatile long retiredState;
+
+    MappedScore(ByteBuffer buffer, int offset, int slot) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.slot = slot;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    void initialize(long state) {
+        LONG_VIEW.setVolatile(buffer, offset, state);
+    }
+
+    /**
+     * Detaches the score from its slot, so the slot can be given to another match.
+     * Updates in flight are awaited; later reads and updates work on a copy of the final state.
+     */
+    void retire() {
+        while (!WRITERS.compareAndSet(this, 0, RETIRING)) {
+            Thread.onSpinWait();
+        }
+        RETIRED_STATE.setVolatile(this, (long) LONG_VIEW.getVolatile(buffer, offset));
+        WRITERS.setVolatile(this, RETIRED);
+    }
+
+    @Override
+    public long getState() {
+        if ((int) WRITERS.getVolatile(this) >= 0) {
+            long state = (long) LONG_VIEW.getVolatile(buffer, offset);
+            // The slot is released only after retiring, so a state read before retiring belongs to this score
+            if ((int) WRITERS.getVolatile(this) >= 0) {
+                return state;
+            }
+        }
+        awaitRetired();
+        return (long) RETIRED_STATE.getVolatile(this);
+    }
+
+    @Override
+    protected boolean compareAndSetState(long expectedState, long newState) {
+        if (enter()) {
+            try {
+                return LONG_VIEW.compareAndSet(buffer, offset, expectedState, newState);
+            } finally {
+                WRITERS.getAndAdd(this, -1);
+            }
+        }
+        return RETIRED_STATE.compareAndSet(this, expectedState, newState);
+    }
+
+    /**
+     * Registers an update of the mapped record.
+     *
+     * @return false if the score is retired, and the update must work on the copy instead
+     */
+    private boolean enter() {
+        while (true) {
+            int current = (int) WRITERS.getVolatile(this);
+            if (current == RETIRED) {
+                return false;
+            } else if (current == RETIRING) {
+                Thread.onSpinWait();
+            } else if (WRITERS.compareAndSet(this, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void awaitRetired() {
+        while ((int) WRITERS.getVolatile(this) != RETIRED) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -3,17 +3,104 @@ package org.worldcup.repository;
 import org.worldcup.model.Match;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents a repository of matches.
  * It contains methods to add, remove, get, and check the existence of a match.
  */
 public interface MatchRepository {
-    void addMatch(String key, Match match);
-    void removeMatch(String key);
+    /**
+     * Adds a match unless its key or one of its teams is already taken by a live match.
+     * The check and the insertion happen atomically.
+     *
+     * @param key the key of the match
+     * @param match the match to add
+     * @return null if the match was added, otherwise the key of the live match that blocked it
+     */
+    String addMatch(String key, Match match);
+
+    /**
+     * Adds a match like {@link #addMatch(String, Match)}, and passes the instance the repository stored to a callback.
+     * A repository may store its own copy of the match, for example one whose score lives in durable storage. Only that
+     * copy sees later score changes and is returned by lookups, so callers that keep or publish the match must use it.
+     *
+     * @param key the key of the match
+     * @param match the match to add
+     * @param added receives the stored match once it is live, if it was added
+     * @return null if the match was added, otherwise the key of the live match that blocked it
+     */
+    default String addMatch(String key, Match match, Consumer<Match> added) {
+        String conflictingKey = addMatch(key, match);
+        if (conflictingKey == null) {
+            added.accept(match);
+        }
+        return conflictingKey;
+    }
+
+    /**
+     * Removes a match and releases its teams atomically.
+     *
+     * @param key the key of the match
+     * @return the removed match, or null if there was no match with the given key
+     */
+    Match removeMatch(String key);
+
     Match getMatch(String key);
     boolean containsMatch(String key);
     int countMatches();
     boolean isTeamInAnyMatch(String teamName);
     Collection<Match> getAllMatches();
+
+    /**
+     * Moves a match to its new position in the summary order after its score has changed.
+     * Matches that are no longer live are ignored.
+     *
+     * @param match the match whose score has changed
+     */
+    void reorderMatch(Match match);
+
+    /**
+     * Gets the matches ordered by total score in descending order, with the most recently started match first for ties.
+     *
+     * @return a live, read-only view of the matches in summary order
+     */
+    Collection<Match> getMatchesInSummaryOrder();
+
+    /**
+     * Gets the matches that come after a position in summary order.
+     * The position is the total score, start sequence and home team of a match, which need not be live anymore.
+     *
+     * @param totalScore the total score at the position
+     * @param startSequence the start sequence at the position
+     * @param homeTeam the home team at the position
+     * @return a live, read-only view of the matches after the position, in summary order
+     */
+    Collection<Match> getMatchesInSummaryOrderAfter(int totalScore, long startSequence, String homeTeam);
+
+    /**
+     * Gets the matches of the summary in no particular order.
+     * A walk of this view returns every match that stays live during the walk exactly once, even while scores change,
+     * which a walk of {@link #getMatchesInSummaryOrder()} does not guarantee.
+     *
+     * @return a live, read-only view of the matches of the summary
+     */
+    Collection<Match> getSummarizedMatches();
+
+    /**
+     * Gets the version of the summary, which grows after every added or removed match and every score change.
+     * Reading the summary after reading a version shows at least the changes up to that version.
+     *
+     * @return the version of the summary
+     */
+    long getSummaryVersion();
+
+    /**
+     * Gets the changes to the summary made after a version, from a bounded log of the latest changes.
+     *
+     * @param sinceVersion a version returned by {@link #getSummaryVersion()}
+     * @return the changes up to the current version in version order, or null if the log no longer holds all of them
+     */
+    List<SummaryChange> getSummaryChangesSince(long sinceVersion);
 }
@@ -0,0 +1,144 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+import org.worldcup.util.PackedMatchKeyGenerator;
+import org.worldcup.util.TeamRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Represents an in-memory repository of matches keyed by packed team IDs.
+ * It pairs with {@link PackedMatchKeyGenerator}: matches live in a primitive long-keyed open-addressing map, and
+ * teams are reserved by their interned ID, so the hot paths neither build key strings nor allocate on lookups.
+ * Teams are identified ignoring case, as the {@link TeamRegistry} interns them.
+ * The string-keyed methods accept the keys produced by {@link PackedMatchKeyGenerator#generateKey(String, String)}.
+ */
+public class PackedKeyMatchRepository implements MatchRepository {
+    private final TeamRegistry teamRegistry;
+    private final LongMatchMap matches = new LongMatchMap();
+    private final TeamReservations teamReservations = new TeamReservations();
+    private final SummaryIndex summaryIndex = new SummaryIndex();
+    private final LongPredicate isLive = key -> matches.get(key) != null;
+
+    public PackedKeyMatchRepository(TeamRegistry teamRegistry) {
+        this.teamRegistry = teamRegistry;
+    }
+
+    /**
+     * Adds a match unless its key or one of its teams is already taken by a live match.
+     *
+     * @param key the packed key of the match
+     * @param match the match to add
+     * @return {@link PackedMatchKeyGenerator#NO_KEY} if the match was added, otherwise the key of the live match that blocked it
+     */
+    public long addMatch(long key, Match match) {
+        int homeId = PackedMatchKeyGenerator.homeId(key);
+        int awayId = PackedMatchKeyGenerator.awayId(key);
+        // Teams are reserved in ID order, so two starts waiting for each other's pending reservation cannot deadlock
+        int firstId = Math.min(homeId, awayId);
+        int secondId = Math.max(homeId, awayId);
+        long conflictingKey = teamReservations.reserve(firstId, key, isLive);
+        if (conflictingKey != PackedMatchKeyGenerator.NO_KEY) {
+            return conflictingKey;
+        }
+        conflictingKey = teamReservations.reserve(secondId, key, isLive);
+        if (conflictingKey != PackedMatchKeyGenerator.NO_KEY) {
+            teamReservations.release(firstId, key);
+            return conflictingKey;
+        }
+        if (matches.putIfAbsent(key, match) != null) {
+            teamReservations.release(homeId, key);
+            teamReservations.release(awayId, key);
+            return key;
+        }
+        summaryIndex.add(match, () -> matches.get(key) == match);
+        return PackedMatchKeyGenerator.NO_KEY;
+    }
+
+    public Match removeMatch(long key) {
+        Match match = matches.remove(key);
+        if (match != null) {
+            summaryIndex.remove(match);
+            teamReservations.release(PackedMatchKeyGenerator.homeId(key), key);
+            teamReservations.release(PackedMatchKeyGenerator.awayId(key), key);
+        }
+        return match;
+    }
+
+    public Match getMatch(long key) {
+        return matches.get(key);
+    }
+
+    public boolean containsMatch(long key) {
+        return matches.get(key) != null;
+    }
+
+    @Override
+    public String addMatch(String key, Match match) {
+        long conflictingKey = addMatch(Long.parseLong(key), match);
+        return conflictingKey == PackedMatchKeyGenerator.NO_KEY ? null : Long.toString(conflictingKey);
+    }
+
+    @Override
+    public Match removeMatch(String key) {
+        return removeMatch(Long.parseLong(key));
+    }
+
+    @Override
+    public Match getMatch(String key) {
+        return getMatch(Long.parseLong(key));
+    }
+
+    @Override
+    public boolean containsMatch(String key) {
+        return containsMatch(Long.parseLong(key));
+    }
+
+    @Override
+    public int countMatches() {
+        return matches.size();
+    }
+
+    @Override
+    public boolean isTeamInAnyMatch(String teamName) {
+        int teamId = teamRegistry.findId(teamName);
+        return teamId != TeamRegistry.UNKNOWN_TEAM && teamReservations.reservedBy(teamId) != PackedMatchKeyGenerator.NO_KEY;
+    }
+
+    @Override
+    public Collection<Match> getAllMatches() {
+        return matches.values();
+    }
+
+    @Override
+    public void reorderMatch(Match match) {
+        summaryIndex.reorder(match);
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrder() {
+        return summaryIndex.matches();
+    }
+
+    @Override
+    public Collection<Match> getMatchesInSummaryOrderAfter(int totalScore, long startSequence, String homeTeam) {
+        return summaryIndex.matchesAfter(new SummaryKey(totalScore, startSequence, homeTeam));
+    }
+
+    @Override
+    public Collection<Match> getSummarizedMatches() {
+        return summaryIndex.summarizedMatches();
+    }
+
+    @Override
+    public long getSummaryVersion() {
+        return summaryIndex.version();
+    }
+
+    @Override
+    public List<SummaryChange> getSummaryChangesSince(long sinceVersion) {
+        return summaryIndex.changesSince(sinceVersion);
+    }
+}
@@ -0,0 +1,19 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+
+/**
+ * A change to the summary, as kept in the change log of a repository.
+ *
+ * @param version the summary version the change produced
+ * @param match the changed match
+ * @param type the kind of change
+ */
+public record SummaryChange(long version, Match match, Type type) {
+
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED
+    }
+}
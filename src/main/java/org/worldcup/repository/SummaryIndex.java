@@ -0,0 +1,125 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps the live matches in summary order, so reading the summary is an ordered walk instead of a sort.
+ * Each match is indexed under the key computed from its score when it was last added or reordered.
+ * Updates for the same match are serialized by the key map, so the index always ends up reflecting the latest score.
+ * A match is only added while it is still live in the repository, so an add that loses the race against a remove leaves nothing behind.
+ * The version grows after every change, so a reader that sees a version also sees every change up to it.
+ * The latest changes are also kept in a ring indexed by their version, so a reader can ask which matches changed since
+ * a version instead of reading the whole summary again.
+ */
+class SummaryIndex {
+    static final int CHANGE_LOG_CAPACITY = 4096;
+
+    private final ConcurrentSkipListMap<SummaryKey, Match> orderedMatches = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Match, SummaryKey> summaryKeys = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReferenceArray<SummaryChange> changeLog = new AtomicReferenceArray<>(CHANGE_LOG_CAPACITY);
+
+    void add(Match match, BooleanSupplier isLive) {
+        summaryKeys.compute(match, (m, previous) -> {
+            if (previous != null || !isLive.getAsBoolean()) {
+                return previous;
+            }
+            SummaryKey summaryKey = SummaryKey.of(m);
+            orderedMatches.put(summaryKey, m);
+            logChange(m, SummaryChange.Type.ADDED);
+            return summaryKey;
+        });
+    }
+
+    void remove(Match match) {
+        summaryKeys.computeIfPresent(match, (m, summaryKey) -> {
+            orderedMatches.remove(summaryKey);
+            logChange(m, SummaryChange.Type.REMOVED);
+            return null;
+        });
+    }
+
+    void reorder(Match match) {
+        summaryKeys.computeIfPresent(match, (m, previous) -> {
+            SummaryKey current = SummaryKey.of(m);
+            if (!current.equals(previous)) {
+                orderedMatches.remove(previous);
+                orderedMatches.put(current, m);
+            }
+            logChange(m, SummaryChange.Type.UPDATED);
+            return current;
+        });
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets the changes made after a version, up to the current version.
+     *
+     * @param sinceVersion the version the reader has seen
+     * @return the changes in version order, or null if the log no longer holds all of them
+     */
+    List<SummaryChange> changesSince(long sinceVersion) {
+        long currentVersion = version.get();
+        if (sinceVersion > currentVersion || currentVersion - sinceVersion > CHANGE_LOG_CAPACITY) {
+            return null;
+        }
+        List<SummaryChange> changes = new ArrayList<>((int) (currentVersion - sinceVersion));
+        for (long changeVersion = sinceVersion + 1; changeVersion <= currentVersion; changeVersion++) {
+            int slot = (int) (changeVersion & (CHANGE_LOG_CAPACITY - 1));
+            SummaryChange change = changeLog.get(slot);
+            // The version is taken before the change is logged, so wait for a writer that is between the two
+            while (change == null || change.version() < changeVersion) {
+                Thread.onSpinWait();
+                change = changeLog.get(slot);
+            }
+            if (change.version() != changeVersion) {
+                return null;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    Collection<Match> matches() {
+        return Collections.unmodifiableCollection(orderedMatches.values());
+    }
+
+    Collection<Match> matchesAfter(SummaryKey position) {
+        return Collections.unmodifiableCollection(orderedMatches.tailMap(position, false).values());
+    }
+
+    /**
+     * Gets the indexed matches in no order. Each match has one entry here whatever its score, so unlike the summary
+     * order, where a reorder removes a match and puts it back, a walk never skips or repeats a match that stays live.
+     */
+    Collection<Match> summarizedMatches() {
+        return Collections.unmodifiableSet(summaryKeys.keySet());
+    }
+
+    private void logChange(Match match, SummaryChange.Type type) {
+        long changeVersion = version.incrementAndGet();
+        int slot = (int) (changeVersion & (CHANGE_LOG_CAPACITY - 1));
+        SummaryChange change = new SummaryChange(changeVersion, match, type);
+        SummaryChange previous;
+        do {
+            previous = changeLog.get(slot);
+            // A writer that wrapped around the ring may already have logged a newer change in the slot
+            if (previous != null && previous.version() > changeVersion) {
+                return;
+            }
+        } while (!changeLog.compareAndSet(slot, previous, change));
+    }
+}
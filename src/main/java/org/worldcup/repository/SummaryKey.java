@@ -0,0 +1,30 @@
+package org.worldcup.repository;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+
+/**
+ * The position of a match in the summary.
+ * Keys are ordered by total score in descending order, and by start sequence in descending order for ties.
+ * The home team only breaks ties between matches that got the same start sequence from different managers.
+ * A team plays at most one live match, so the key is unique within a repository.
+ */
+record SummaryKey(int totalScore, long startSequence, String homeTeam) implements Comparable<SummaryKey> {
+
+    static SummaryKey of(Match match) {
+        return new SummaryKey(Score.totalScore(match.score().getState()), match.startSequence(), match.homeTeam());
+    }
+
+    @Override
+    public int compareTo(SummaryKey other) {
+        int scoreComparison = Integer.compare(other.totalScore, totalScore);
+        if (scoreComparison != 0) {
+            return scoreComparison;
+        }
+        int sequenceComparison = Long.compare(other.startSequence, startSequence);
+        if (sequenceComparison != 0) {
+            return sequenceComparison;
+        }
+        return homeTeam.compareTo(other.homeTeam);
+    }
+}
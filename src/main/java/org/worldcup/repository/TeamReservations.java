@@ -0,0 +1,77 @@
+package org.worldcup.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongPredicate;
+
+/**
+ * Records which live match each team plays in, indexed by team ID.
+ * Teams are reserved and released with compare-and-set, so reservations for different teams never block each other.
+ * The slots are allocated in chunks as team IDs grow; a slot holds the packed key of the match, or 0 if the team is free.
+ */
+class TeamReservations {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * Reserves a team for a match.
+     * A reservation for a key that is not live belongs to a start or a finish that is still in progress, so it is awaited
+     * instead of reported: a start must never fail because of a match that never existed.
+     *
+     * @param isLive tells whether a match key is live
+     * @return 0 if the team was reserved, otherwise the key of the live match that already holds the team
+     */
+    long reserve(int teamId, long key, LongPredicate isLive) {
+        AtomicLongArray chunk = chunkFor(teamId);
+        int slot = teamId & CHUNK_MASK;
+        while (true) {
+            if (chunk.compareAndSet(slot, 0, key)) {
+                return 0;
+            }
+            long reservedBy = chunk.get(slot);
+            if (reservedBy != 0 && isLive.test(reservedBy)) {
+                return reservedBy;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    void release(int teamId, long key) {
+        chunkFor(teamId).compareAndSet(teamId & CHUNK_MASK, key, 0);
+    }
+
+    /**
+     * Gets the key of the match the team plays in.
+     *
+     * @return the key of the match, or 0 if the team is free
+     */
+    long reservedBy(int teamId) {
+        AtomicLongArray[] current = chunks;
+        int chunkIndex = teamId >>> CHUNK_BITS;
+        if (chunkIndex >= current.length || current[chunkIndex] == null) {
+            return 0;
+        }
+        return current[chunkIndex].get(teamId & CHUNK_MASK);
+    }
+
+    private AtomicLongArray chunkFor(int teamId) {
+        int chunkIndex = teamId >>> CHUNK_BITS;
+        AtomicLongArray[] current = chunks;
+        if (chunkIndex < current.length && current[chunkIndex] != null) {
+            return current[chunkIndex];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (chunkIndex >= current.length) {
+                current = Arrays.copyOf(current, Math.max(chunkIndex + 1, current.length * 2));
+            }
+            if (current[chunkIndex] == null) {
+                current[chunkIndex] = new AtomicLongArray(1 << CHUNK_BITS);
+            }
+            chunks = current;
+            return current[chunkIndex];
+        }
+    }
+}
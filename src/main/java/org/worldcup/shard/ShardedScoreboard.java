@@ -0,0 +1,311 @@
+package org.worldcup.shard;
+
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.repository.MatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+import org.worldcup.util.SummarySnapshot;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splits a scoreboard into independent shards, by competition or by a hash of the teams.
+ * Each shard has its own repository, managers and summary order, so writes of goals to different shards never touch
+ * the same data. A team is kept from playing two matches at once within its competition, and across all shards when
+ * the matches are spread by hash: there each shard owns the team index of the teams that hash to it, and the starts
+ * and finishes of every shard reserve a team in its owner's index. A start thus touches the indexes of at most two
+ * shards, and only starts and finishes write to them.
+ * <p>
+ * A scoreboard spread by hash can be played through {@link #startMatch}, {@link #updateScore} and
+ * {@link #finishMatch}, which route a match to its shard.
+ * <p>
+ * The global summary is a lazy k-way merge of the shards' summaries, which are already sorted, so reading its top
+ * matches does not sort the whole board. The shards' start sequences follow one clock, so matches with the same total
+ * score are still ordered by when they started, whatever their shard.
+ */
+public class ShardedScoreboard {
+    private static final int PARALLEL_CAPTURE_THRESHOLD = 10_000;
+    private static final long CLOCK_ORIGIN = System.nanoTime();
+    private static final LongSupplier START_CLOCK = () -> System.nanoTime() - CLOCK_ORIGIN;
+
+    private final List<Shard> shards;
+    private final Map<String, Shard> shardsByName = new LinkedHashMap<>();
+    private final boolean byHash;
+
+    private ShardedScoreboard(List<String> shardNames, boolean byHash) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("A scoreboard needs at least one shard");
+        }
+        this.byHash = byHash;
+        List<ConcurrentMap<String, String>> teamIndexes = shardNames.stream()
+                .<ConcurrentMap<String, String>>map(name -> new ConcurrentHashMap<>())
+                .toList();
+        List<Shard> shards = new ArrayList<>(shardNames.size());
+        for (String name : shardNames) {
+            InMemoryMatchRepository matchRepository = byHash
+                    ? new InMemoryMatchRepository(team -> teamIndexes.get(shardIndexOf(team)), this::isLive)
+                    : new InMemoryMatchRepository();
+            MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator(), START_CLOCK);
+            Shard shard = new Shard(name, matchRepository, matchManager, new ScoreManager(matchManager), new MatchSummaryGenerator(matchRepository));
+            if (shardsByName.putIfAbsent(name, shard) != null) {
+                throw new IllegalArgumentException("Duplicate shard: " + name);
+            }
+            shards.add(shard);
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Creates a scoreboard with one shard per competition.
+     *
+     * @param competitions the names of the competitions
+     * @return the scoreboard
+     * @throws IllegalArgumentException if no competition is given or one is given twice
+     */
+    public static ShardedScoreboard byCompetition(String... competitions) {
+        return new ShardedScoreboard(List.of(competitions), false);
+    }
+
+    /**
+     * Creates a scoreboard whose matches are spread over shards by {@link #shardOf(String, String)}.
+     * The shards are named by their index.
+     *
+     * @param shardCount the number of shards
+     * @return the scoreboard
+     * @throws IllegalArgumentException if the shard count is not positive
+     */
+    public static ShardedScoreboard byHash(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("A scoreboard needs at least one shard");
+        }
+        return new ShardedScoreboard(IntStream.range(0, shardCount).mapToObj(String::valueOf).toList(), true);
+    }
+
+    /**
+     * Gets a shard by name.
+     *
+     * @param name the name of the shard, such as its competition
+     * @return the shard
+     * @throws IllegalArgumentException if there is no such shard
+     */
+    public Shard shard(String name) {
+        Shard shard = shardsByName.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return shard;
+    }
+
+    /**
+     * Gets the shard a match belongs to when matches are spread by hash.
+     * The shard follows from the lowercased team name that sorts first, so a match, its reversal and its spellings in
+     * another case all go to the same shard and conflict there.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the shard
+     */
+    public Shard shardOf(String homeTeam, String awayTeam) {
+        String home = homeTeam.toLowerCase(Locale.ROOT);
+        String away = awayTeam.toLowerCase(Locale.ROOT);
+        return shards.get(shardIndexOf(home.compareTo(away) <= 0 ? homeTeam : awayTeam));
+    }
+
+    /**
+     * Starts a match on its shard, see {@link MatchManager#startMatch(String, String)}.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @throws IllegalStateException if the matches are not spread by hash
+     */
+    public void startMatch(String homeTeam, String awayTeam) {
+        routedShard(homeTeam, awayTeam).matchManager().startMatch(homeTeam, awayTeam);
+    }
+
+    /**
+     * Finishes a match on its shard, see {@link MatchManager#finishMatch(String, String)}.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @throws IllegalStateException if the matches are not spread by hash
+     */
+    public void finishMatch(String homeTeam, String awayTeam) {
+        routedShard(homeTeam, awayTeam).matchManager().finishMatch(homeTeam, awayTeam);
+    }
+
+    /**
+     * Scores a goal in a match on its shard, see {@link ScoreManager#updateScore(String, String, TeamType)}.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param teamType the team that scored
+     * @throws IllegalStateException if the matches are not spread by hash
+     */
+    public void updateScore(String homeTeam, String awayTeam, TeamType teamType) {
+        routedShard(homeTeam, awayTeam).scoreManager().updateScore(homeTeam, awayTeam, teamType);
+    }
+
+    public List<Shard> shards() {
+        return shards;
+    }
+
+    /**
+     * Gets the summary of the matches of all shards, in the order of {@link MatchSummaryGenerator#getSummary()}.
+     *
+     * @return the lines of the summary
+     */
+    public List<String> getSummary() {
+        return stream().toList();
+    }
+
+    /**
+     * Gets the first matches of the summary of all shards. Only as many matches are merged as are returned.
+     *
+     * @param k the maximum number of matches
+     * @return the lines of at most k matches
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<String> getTopSummary(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of matches cannot be negative");
+        }
+        return stream().limit(k).toList();
+    }
+
+    /**
+     * Streams the summary of all shards, merging the shards' summaries as the stream is read.
+     * The summary of each shard is read once when the stream starts; on large boards they are read in parallel.
+     *
+     * @return the lines of the summary in summary order
+     */
+    public Stream<String> stream() {
+        Spliterator<SummarySnapshot.Entry> entries = Spliterators.spliteratorUnknownSize(new MergingIterator(snapshots()),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(entries, false).map(SummarySnapshot.Entry::toString);
+    }
+
+    private Shard routedShard(String homeTeam, String awayTeam) {
+        if (!byHash) {
+            throw new IllegalStateException("The matches are split by competition; play them on their shard");
+        }
+        return shardOf(homeTeam, awayTeam);
+    }
+
+    /**
+     * Gets the index of the shard that owns a team, by the hash of its lowercased name.
+     */
+    private int shardIndexOf(String team) {
+        return Math.floorMod(team.toLowerCase(Locale.ROOT).hashCode(), shards.size());
+    }
+
+    /**
+     * Tells whether a match key belongs to a live match of any shard, for the team indexes the hash shards share.
+     */
+    private boolean isLive(String key) {
+        for (Shard shard : shards) {
+            if (shard.matchRepository().containsMatch(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<SummarySnapshot> snapshots() {
+        Stream<Shard> shardStream = shards.stream();
+        if (shards.size() > 1 && shards.stream().mapToInt(shard -> shard.matchRepository().countMatches()).sum() >= PARALLEL_CAPTURE_THRESHOLD) {
+            shardStream = shardStream.parallel();
+        }
+        return shardStream.map(shard -> shard.summaryGenerator().getSnapshot()).toList();
+    }
+
+    /**
+     * One shard of a scoreboard.
+     *
+     * @param name the name of the shard
+     * @param matchRepository the repository of its matches
+     * @param matchManager the manager that starts and finishes its matches
+     * @param scoreManager the manager that scores its matches
+     * @param summaryGenerator the generator of its summary
+     */
+    public record Shard(String name, MatchRepository matchRepository, MatchManager matchManager, ScoreManager scoreManager,
+                        MatchSummaryGenerator summaryGenerator) {
+    }
+
+    /**
+     * Merges sorted snapshots with a heap holding the next entry of each snapshot.
+     * Entries that compare equal are taken from the earlier shard first, so the merge is deterministic.
+     */
+    private static final class MergingIterator implements Iterator<SummarySnapshot.Entry> {
+        private final PriorityQueue<Run> runs;
+
+        private MergingIterator(List<SummarySnapshot> snapshots) {
+            runs = new PriorityQueue<>(Math.max(1, snapshots.size()), (first, second) -> {
+                int comparison = SummarySnapshot.SUMMARY_ORDER.compare(first.head, second.head);
+                return comparison != 0 ? comparison : Integer.compare(first.shardIndex, second.shardIndex);
+            });
+            for (int i = 0; i < snapshots.size(); i++) {
+                List<SummarySnapshot.Entry> entries = snapshots.get(i).entries();
+                if (!entries.isEmpty()) {
+                    runs.add(new Run(i, entries));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !runs.isEmpty();
+        }
+
+        @Override
+        public SummarySnapshot.Entry next() {
+            Run run = runs.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            SummarySnapshot.Entry entry = run.head;
+            if (run.advance()) {
+                runs.add(run);
+            }
+            return entry;
+        }
+    }
+
+    private static final class Run {
+        private final int shardIndex;
+        private final List<SummarySnapshot.Entry> entries;
+        private int position;
+        private SummarySnapshot.Entry head;
+
+        private Run(int shardIndex, List<SummarySnapshot.Entry> entries) {
+            this.shardIndex = shardIndex;
+            this.entries = entries;
+            this.head = entries.get(0);
+        }
+
+        private boolean advance() {
+            if (++position == entries.size()) {
+                return false;
+            }
+            head = entries.get(position);
+            return true;
+        }
+    }
+}
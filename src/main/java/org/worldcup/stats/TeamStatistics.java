@@ -0,0 +1,165 @@
+package org.worldcup.stats;
+
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.TeamType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps goals scored and conceded and matches played per team, updated as the scoreboard changes, so they are read
+ * without scanning the board. Register it with {@link MatchManager#addListener(MatchEventListener)}; only the changes
+ * made after that are counted.
+ * <p>
+ * Each team has its own atomic counters, so updates for different teams never meet and none of them locks.
+ * The teams are also ranked by goals scored in a concurrent skip list: a goal moves its team with a compare-and-set
+ * on the team's rank entry, and the top k teams are read by walking the first entries of the list.
+ * The counters of one team are read one by one, so statistics read during a change may show only part of it.
+ */
+public class TeamStatistics implements MatchEventListener {
+    private static final Comparator<RankKey> RANK_ORDER = Comparator.comparingLong(RankKey::goals).reversed()
+            .thenComparing(RankKey::team)
+            .thenComparingLong(RankKey::stamp);
+
+    private final ConcurrentHashMap<String, TeamCounters> teams = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<RankKey> ranking = new ConcurrentSkipListSet<>(RANK_ORDER);
+
+    @Override
+    public void matchStarted(Match match) {
+        countersOf(match.homeTeam()).played.incrementAndGet();
+        countersOf(match.awayTeam()).played.incrementAndGet();
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        countersOf(match.homeTeam()).finished.incrementAndGet();
+        countersOf(match.awayTeam()).finished.incrementAndGet();
+    }
+
+    @Override
+    public void scoreChanged(Match match, TeamType teamType, int delta) {
+        boolean home = teamType == TeamType.HOME_TEAM;
+        TeamCounters scorer = countersOf(home ? match.homeTeam() : match.awayTeam());
+        TeamCounters opponent = countersOf(home ? match.awayTeam() : match.homeTeam());
+        scorer.goalsFor.addAndGet(delta);
+        opponent.goalsAgainst.addAndGet(delta);
+        rerank(scorer);
+    }
+
+    /**
+     * Gets the statistics of a team.
+     *
+     * @param team the name of the team
+     * @return the statistics, all zero if the team has not played
+     */
+    public TeamStats teamStats(String team) {
+        TeamCounters counters = teams.get(team);
+        return counters == null ? new TeamStats(team, 0, 0, 0, 0) : counters.stats();
+    }
+
+    /**
+     * Gets the teams that scored the most goals, most first. Teams with as many goals are ordered by name.
+     *
+     * @param k the maximum number of teams
+     * @return the statistics of at most k teams
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<TeamStats> topScorers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of teams cannot be negative");
+        }
+        List<TeamStats> topScorers = new ArrayList<>(Math.min(k, teams.size()));
+        Iterator<RankKey> keys = ranking.iterator();
+        while (topScorers.size() < k && keys.hasNext()) {
+            RankKey key = keys.next();
+            TeamCounters counters = teams.get(key.team());
+            // Skip the entries that a concurrent goal is replacing
+            if (counters != null && counters.rankKey.get() == key) {
+                topScorers.add(counters.stats());
+            }
+        }
+        return topScorers;
+    }
+
+    private TeamCounters countersOf(String team) {
+        TeamCounters counters = teams.get(team);
+        return counters != null ? counters : teams.computeIfAbsent(team, name -> {
+            TeamCounters created = new TeamCounters(name);
+            ranking.add(created.rankKey.get());
+            return created;
+        });
+    }
+
+    /**
+     * Moves a team to the rank of its current goal count.
+     * Whoever changes the goals last sees the final count, so the rank entry always catches up with it; an entry that
+     * was replaced before it was added to the ranking is taken out again by the thread that added it.
+     */
+    private void rerank(TeamCounters counters) {
+        while (true) {
+            RankKey current = counters.rankKey.get();
+            long goals = counters.goalsFor.get();
+            if (current.goals() == goals) {
+                return;
+            }
+            RankKey next = new RankKey(goals, counters.team, current.stamp() + 1);
+            if (counters.rankKey.compareAndSet(current, next)) {
+                ranking.add(next);
+                ranking.remove(current);
+                if (counters.rankKey.get() != next) {
+                    ranking.remove(next);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * The statistics of a team.
+     *
+     * @param team the name of the team
+     * @param played the number of matches the team has started, including the live ones
+     * @param live the number of matches the team is playing now
+     * @param goalsFor the number of goals the team scored
+     * @param goalsAgainst the number of goals the team conceded
+     */
+    public record TeamStats(String team, long played, long live, long goalsFor, long goalsAgainst) {
+
+        public long goalDifference() {
+            return goalsFor - goalsAgainst;
+        }
+    }
+
+    /**
+     * An entry of the ranking. The stamp tells apart the successive entries of a team with the same goal count.
+     */
+    private record RankKey(long goals, String team, long stamp) {
+    }
+
+    private static final class TeamCounters {
+        private final String team;
+        private final AtomicLong played = new AtomicLong();
+        private final AtomicLong finished = new AtomicLong();
+        private final AtomicLong goalsFor = new AtomicLong();
+        private final AtomicLong goalsAgainst = new AtomicLong();
+        private final AtomicReference<RankKey> rankKey;
+
+        private TeamCounters(String team) {
+            this.team = team;
+            this.rankKey = new AtomicReference<>(new RankKey(0, team, 0));
+        }
+
+        private TeamStats stats() {
+            long played = this.played.get();
+            return new TeamStats(team, played, Math.max(0, played - finished.get()), goalsFor.get(), goalsAgainst.get());
+        }
+    }
+}
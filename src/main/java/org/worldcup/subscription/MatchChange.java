@@ -0,0 +1,36 @@
+package org.worldcup.subscription;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+
+/**
+ * A change to one match, as delivered to a {@link MatchChangeListener}.
+ * Changes may be coalesced, so one change can stand for several goals and infraction adjustments of the match.
+ *
+ * @param type the kind of change
+ * @param match the changed match, null for {@link #RESYNC}
+ * @param scoreState the packed score of the match right after the change, see {@link Score#getState()}
+ */
+public record MatchChange(Type type, Match match, long scoreState) {
+
+    /**
+     * Takes the place of the changes dropped because the listener fell too far behind. The changes delivered after it
+     * are complete again, so a listener that keeps a copy of the board should read the board again from a summary.
+     */
+    public static final MatchChange RESYNC = new MatchChange(Type.RESYNC, null, 0);
+
+    public enum Type {
+        STARTED,
+        SCORE_CHANGED,
+        FINISHED,
+        RESYNC
+    }
+
+    public int homeScore() {
+        return Score.homeScore(scoreState);
+    }
+
+    public int awayScore() {
+        return Score.awayScore(scoreState);
+    }
+}
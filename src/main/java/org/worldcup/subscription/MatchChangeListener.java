@@ -0,0 +1,18 @@
+package org.worldcup.subscription;
+
+/**
+ * Receives the changes of a {@link Subscription}.
+ * A listener is called from one thread at a time, but not always the same thread, and never from the thread that
+ * changed the scoreboard.
+ */
+@FunctionalInterface
+public interface MatchChangeListener {
+
+    /**
+     * Called for each change, in the order the changes were made to the match, and with {@link MatchChange#RESYNC}
+     * where changes were dropped.
+     *
+     * @param change the latest change of a match since the last call for it, or {@link MatchChange#RESYNC}
+     */
+    void matchChanged(MatchChange change);
+}
@@ -0,0 +1,258 @@
+package org.worldcup.subscription;
+
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the changes of a scoreboard to subscribed {@link MatchChangeListener}s without making the writers wait.
+ * <p>
+ * The thread that changes the scoreboard only coalesces the change with the pending change of its match, so the
+ * changes waiting for dispatch never outnumber the matches. A dispatcher thread hands each change to the
+ * {@link Subscription}s, which coalesce it with the changes their listener has not received yet, and the listeners
+ * are called on the threads of an executor. Each subscription delivers on at most one thread at a time, and the default
+ * executor starts a thread per busy subscription, so a slow or stuck listener delays neither the writers nor the other
+ * subscriptions, and the number of subscriptions does not add to the cost of a change for the writer.
+ * <p>
+ * The changes of a match are dispatched in the order they were made: a match is always dispatched as started before
+ * its score changes, and once its finish is dispatched, the changes of that match that raced with the finish are
+ * dropped.
+ */
+public class ScoreboardSubscriptions implements MatchEventListener, Closeable {
+    private static final int DISPATCH_BATCH_SIZE = 1024;
+
+    private final MatchManager matchManager;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // The change waiting for dispatch per match, and the matches in the order their change started waiting
+    private final Map<Match, MatchChange> pendingChanges = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Match> pendingMatches = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    // Used by the dispatcher only: the latest score state seen per live match, to skip changes that arrive out of
+    // order, and the matches seen finishing, to drop their late changes. A match is kept only while it is referenced,
+    // which a late change of it does.
+    private final Map<Match, Long> latestStates = new WeakHashMap<>();
+    private final Set<Match> finishedMatches = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Creates the subscriptions of a scoreboard, with a virtual delivery thread per busy subscription where the runtime
+     * has virtual threads, and a cached daemon thread otherwise.
+     *
+     * @param matchManager the manager whose changes are delivered
+     */
+    public ScoreboardSubscriptions(MatchManager matchManager) {
+        this(matchManager, newDeliveryExecutor(), true);
+    }
+
+    /**
+     * Creates the subscriptions of a scoreboard that call their listeners on the given executor.
+     * The executor is not shut down by {@link #close()}. A bounded executor lets stuck listeners hold up the others.
+     *
+     * @param matchManager the manager whose changes are delivered
+     * @param executor the executor the listeners are called on
+     */
+    public ScoreboardSubscriptions(MatchManager matchManager, Executor executor) {
+        this(matchManager, executor, false);
+    }
+
+    private ScoreboardSubscriptions(MatchManager matchManager, Executor executor, boolean ownsExecutor) {
+        this.matchManager = matchManager;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        dispatcher = new Thread(this::dispatch, "scoreboard-subscriptions");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        matchManager.addListener(this);
+    }
+
+    /**
+     * Subscribes a listener to the changes made from now on.
+     *
+     * @param listener the listener to call
+     * @param capacity the maximum number of matches whose changes wait for the listener
+     * @return the subscription, to be closed to unsubscribe
+     * @throws IllegalArgumentException if the capacity is not positive
+     * @throws IllegalStateException if the subscriptions are closed
+     */
+    public Subscription subscribe(MatchChangeListener listener, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        } else if (!running) {
+            throw new IllegalStateException("The subscriptions are closed");
+        }
+        Subscription subscription = new Subscription(this, listener, capacity, executor);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Stops listening to the scoreboard, closes every subscription and stops the dispatcher thread.
+     */
+    @Override
+    public void close() {
+        matchManager.removeListener(this);
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscriptions.forEach(Subscription::close);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void matchStarted(Match match) {
+        publish(MatchChange.Type.STARTED, match);
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        publish(MatchChange.Type.FINISHED, match);
+    }
+
+    @Override
+    public void scoreChanged(Match match, TeamType teamType, int delta) {
+        publish(MatchChange.Type.SCORE_CHANGED, match);
+    }
+
+    void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    private void publish(MatchChange.Type type, Match match) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        MatchChange change = new MatchChange(type, match, match.score().getState());
+        boolean[] queued = new boolean[1];
+        pendingChanges.compute(match, (key, pending) -> {
+            if (pending == null) {
+                queued[0] = true;
+                return change;
+            }
+            return coalesce(pending, change);
+        });
+        // A match is queued once per pending change; the dispatcher removes the change before it looks at the match again
+        if (queued[0]) {
+            pendingMatches.offer(match);
+        }
+    }
+
+    /**
+     * Merges a change into the pending change of the same match. A finish is never lost, and a start is kept so the
+     * subscriptions see the match before its score; the score state is the newer of the two.
+     */
+    private static MatchChange coalesce(MatchChange pending, MatchChange change) {
+        if (pending.type() == MatchChange.Type.FINISHED) {
+            return pending;
+        }
+        MatchChange.Type type = change.type() == MatchChange.Type.SCORE_CHANGED ? pending.type() : change.type();
+        long state = isNewer(change.scoreState(), pending.scoreState()) ? change.scoreState() : pending.scoreState();
+        return new MatchChange(type, pending.match(), state);
+    }
+
+    /**
+     * Runs on the dispatcher thread: hands the pending changes to the subscriptions until closed.
+     */
+    private void dispatch() {
+        List<Match> batch = new ArrayList<>(DISPATCH_BATCH_SIZE);
+        while (running) {
+            try {
+                batch.add(pendingMatches.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pendingMatches.drainTo(batch, DISPATCH_BATCH_SIZE - 1);
+            for (Match match : batch) {
+                MatchChange change = pendingChanges.remove(match);
+                MatchChange ordered = change == null ? null : inMatchOrder(change);
+                if (ordered != null) {
+                    for (Subscription subscription : subscriptions) {
+                        subscription.offer(ordered);
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Records the score state of a change, and gets the change to dispatch so its match's changes stay in order, or null
+     * if a newer change of its match was dispatched before it.
+     * Changes of the same match made concurrently may be queued out of order; their score versions tell them apart.
+     * The first change dispatched for a match is a start, even if it was queued by a goal that overtook the start, and
+     * the start that comes later is dropped as older. No change of a match is dispatched after its finish, even if it
+     * was made before the finish.
+     */
+    private MatchChange inMatchOrder(MatchChange change) {
+        Match match = change.match();
+        if (finishedMatches.contains(match)) {
+            return null;
+        }
+        if (change.type() == MatchChange.Type.FINISHED) {
+            latestStates.remove(match);
+            finishedMatches.add(match);
+            return change;
+        }
+        Long latestState = latestStates.put(match, change.scoreState());
+        if (latestState == null) {
+            return change.type() == MatchChange.Type.STARTED ? change : new MatchChange(MatchChange.Type.STARTED, match, change.scoreState());
+        } else if (!isNewer(change.scoreState(), latestState)) {
+            latestStates.put(match, latestState);
+            return null;
+        }
+        return change.type() == MatchChange.Type.SCORE_CHANGED ? change : new MatchChange(MatchChange.Type.SCORE_CHANGED, match, change.scoreState());
+    }
+
+    /**
+     * Compares the wrapping 16-bit versions of two score states.
+     */
+    private static boolean isNewer(long state, long otherState) {
+        int distance = (Score.version(state) - Score.version(otherState)) & 0xFFFF;
+        return distance != 0 && distance < 0x8000;
+    }
+
+    /**
+     * Creates an executor without a thread limit, since a subscription occupies a thread as long as its listener runs.
+     */
+    private static ExecutorService newDeliveryExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "scoreboard-subscriber-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.worldcup.subscription;
+
+import org.worldcup.model.Match;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The registration of one {@link MatchChangeListener} with {@link ScoreboardSubscriptions}.
+ * <p>
+ * Changes wait for the listener in a queue that holds at most one change per match: a newer change of a match replaces
+ * the waiting one, so a slow listener only gets the latest score of each match. A match that was started and finished
+ * while the listener was busy is not reported at all. When more matches than the capacity have changes waiting, the
+ * waiting changes are dropped and the listener gets {@link MatchChange#RESYNC} in their place, before the changes
+ * that follow.
+ */
+public final class Subscription implements Closeable {
+    private final ScoreboardSubscriptions subscriptions;
+    private final MatchChangeListener listener;
+    private final int capacity;
+    private final Executor executor;
+
+    // Guarded by this
+    private final Map<Match, MatchChange> pendingChanges = new LinkedHashMap<>();
+    private boolean resyncPending;
+    private boolean scheduled;
+    private volatile boolean closed;
+    private long droppedChangeCount;
+
+    Subscription(ScoreboardSubscriptions subscriptions, MatchChangeListener listener, int capacity, Executor executor) {
+        this.subscriptions = subscriptions;
+        this.listener = listener;
+        this.capacity = capacity;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the number of changes dropped because the listener fell behind, not counting the coalesced ones.
+     *
+     * @return the number of dropped changes
+     */
+    public synchronized long getDroppedChangeCount() {
+        return droppedChangeCount;
+    }
+
+    /**
+     * Stops the delivery of changes. A call of the listener that is already running is not interrupted.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            pendingChanges.clear();
+        }
+        subscriptions.unsubscribe(this);
+    }
+
+    /**
+     * Queues a change, coalescing it with the waiting change of the same match, and schedules its delivery.
+     * Called by the dispatcher thread only.
+     */
+    void offer(MatchChange change) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            Match match = change.match();
+            MatchChange pending = pendingChanges.get(match);
+            if (pending == null) {
+                if (pendingChanges.size() == capacity) {
+                    droppedChangeCount += pendingChanges.size();
+                    pendingChanges.clear();
+                    resyncPending = true;
+                }
+                pendingChanges.put(match, change);
+            } else if (change.type() == MatchChange.Type.FINISHED) {
+                if (pending.type() == MatchChange.Type.STARTED) {
+                    pendingChanges.remove(match);
+                } else {
+                    pendingChanges.put(match, change);
+                }
+            } else {
+                // A start the listener has not seen yet stays a start, with the latest score
+                pendingChanges.put(match, new MatchChange(pending.type(), match, change.scoreState()));
+            }
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this::deliver);
+    }
+
+    /**
+     * Runs on an executor thread: calls the listener until no changes are waiting. Only one delivery runs at a time.
+     */
+    private void deliver() {
+        List<MatchChange> changes = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (closed || (pendingChanges.isEmpty() && !resyncPending)) {
+                    scheduled = false;
+                    return;
+                }
+                if (resyncPending) {
+                    changes.add(MatchChange.RESYNC);
+                    resyncPending = false;
+                }
+                changes.addAll(pendingChanges.values());
+                pendingChanges.clear();
+            }
+            for (MatchChange change : changes) {
+                if (closed) {
+                    break;
+                }
+                call(() -> listener.matchChanged(change));
+            }
+            changes.clear();
+        }
+    }
+
+    /**
+     * Calls the listener, handing a failure to the uncaught exception handler so the next changes are still delivered.
+     */
+    private static void call(Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+}
@@ -1,52 +1,200 @@
 package org.worldcup.util;
 
+import org.worldcup.metrics.ScoreboardMetrics;
+import org.worldcup.metrics.SummaryEvent;
 import org.worldcup.model.Match;
 import org.worldcup.repository.MatchRepository;
+import org.worldcup.repository.SummaryChange;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * This class generates a summary of all matches.
  */
 public class MatchSummaryGenerator {
+    private static final int STREAM_PAGE_SIZE = 256;
 
     private final MatchRepository matchRepository;
+    private final SummaryPublisher summaryPublisher;
+    private volatile SummarySnapshot lastSnapshot = SummarySnapshot.EMPTY;
+    private volatile ScoreboardMetrics metrics = ScoreboardMetrics.NONE;
+    private volatile int parallelThreshold = SummarySnapshot.DEFAULT_PARALLEL_THRESHOLD;
 
     public MatchSummaryGenerator(MatchRepository matchRepository) {
         this.matchRepository = matchRepository;
+        this.summaryPublisher = null;
     }
-    
+
+    /**
+     * Creates a generator that reads the snapshots published by a publisher instead of capturing its own.
+     *
+     * @param summaryPublisher the publisher of the snapshots
+     */
+    public MatchSummaryGenerator(SummaryPublisher summaryPublisher) {
+        this.matchRepository = null;
+        this.summaryPublisher = summaryPublisher;
+    }
+
+    /**
+     * Records the latency of the summaries read from this generator.
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(ScoreboardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the number of matches from which a summary is captured in parallel on the common fork/join pool.
+     * The summary is the same either way.
+     *
+     * @param parallelThreshold the number of matches, {@link Integer#MAX_VALUE} to never capture in parallel
+     * @throws IllegalArgumentException if the threshold is not positive
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("The parallel threshold must be positive");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Gets the summary of all matches.
      * The summary is sorted by the total score of the match in descending order.
      * If two matches have the same total score, the match that started later will be placed first.
+     * Large boards are captured in parallel, see {@link #setParallelThreshold(int)}.
+     * The repository keeps the matches in this order, and the summary is read from a consistent snapshot.
      *
      * @return a list of strings representing the summary of all matches
      */
     public List<String> getSummary(){
-        return matchRepository.getAllMatches().stream()
-                .sorted(this::compareMatches)
-                .map(Match::toString)
-                .toList();
+        return getSnapshot().lines();
+    }
+
+    /**
+     * Gets the first matches of the summary, in the same order as {@link #getSummary()}.
+     * Only the first k matches are sorted and rendered, and each live match is listed once even while scores change.
+     * A snapshot that is still current is cut instead.
+     *
+     * @param k the maximum number of matches
+     * @return a list of strings representing at most k matches
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<String> getTopSummary(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of matches cannot be negative");
+        }
+        SummarySnapshot snapshot = summaryPublisher != null ? summaryPublisher.snapshot() : lastSnapshot;
+        if (summaryPublisher == null && snapshot.version() != matchRepository.getSummaryVersion()) {
+            return SummarySnapshot.captureTop(matchRepository, k);
+        }
+        List<String> lines = snapshot.lines();
+        return lines.subList(0, Math.min(k, lines.size()));
     }
 
     /**
-     * Compares two matches based on their total score and start time.
+     * Gets one page of the summary, without copying the rest of the board.
+     * A page is cut from the current snapshot if there is one, so all pages read while the board is unchanged, or all
+     * pages read from a publisher, are consistent with each other. Otherwise the page is read off the repository's
+     * summary order from the cursor's position, so a cursor never expires and a page costs no more than its size. The
+     * version of the page shows whether the board has changed since the previous page; a match that moved across the
+     * cursor in between may then be missed or repeated.
      *
-     * @param match1 the first match
-     * @param match2 the second match
-     * @return a negative integer, zero, or a positive integer if the first match is less than, equal to, or greater than the second match
+     * @param afterCursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of matches on the page
+     * @return the page
+     * @throws IllegalArgumentException if the limit is not positive
      */
-    private int compareMatches(Match match1, Match match2) {
-        int totalScore1 = match1.score().getHomeScore() + match1.score().getAwayScore();
-        int totalScore2 = match2.score().getHomeScore() + match2.score().getAwayScore();
-        int scoreComparison = Integer.compare(totalScore2, totalScore1);
-        if (scoreComparison != 0) {
-            // Return the comparison based on total score if they're not equal
-            return scoreComparison;
-        } else {
-            return 1; // Return 1 if the total score is equal to prioritize the match that started later
+    public SummaryPage page(SummaryCursor afterCursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        SummarySnapshot snapshot = summaryPublisher != null ? summaryPublisher.snapshot() : lastSnapshot;
+        if (summaryPublisher == null && snapshot.version() != matchRepository.getSummaryVersion()) {
+            return SummarySnapshot.capturePage(matchRepository, afterCursor, limit);
+        }
+        return snapshot.page(afterCursor, limit);
+    }
+
+    /**
+     * Streams the summary lazily, one page at a time, so memory stays bounded however big the board is.
+     *
+     * @return the lines of the summary in summary order
+     */
+    public Stream<String> stream() {
+        return Stream.iterate(page(null, STREAM_PAGE_SIZE), Objects::nonNull,
+                        previous -> previous.hasNext() ? page(previous.nextCursor(), STREAM_PAGE_SIZE) : null)
+                .flatMap(current -> current.lines().stream());
+    }
+
+    /**
+     * Gets the changes to the summary since a version, so a client that keeps a copy of the summary does not have to
+     * read all of it again. Several changes to one match are folded into one.
+     * If the repository's change log no longer reaches back to the version, the delta holds the whole summary instead.
+     *
+     * @param sinceVersion the version of the client's copy, as returned by a previous delta or snapshot; 0 for none
+     * @return the delta
+     */
+    public SummaryDelta changesSince(long sinceVersion) {
+        MatchRepository repository = summaryPublisher != null ? summaryPublisher.matchRepository() : matchRepository;
+        List<SummaryChange> changes = repository.getSummaryChangesSince(sinceVersion);
+        if (changes == null) {
+            return SummaryDelta.full(sinceVersion, getSnapshot());
+        }
+        Map<Match, SummaryChange.Type> changedMatches = new LinkedHashMap<>();
+        for (SummaryChange change : changes) {
+            changedMatches.put(change.match(), change.type());
+        }
+        List<SummarySnapshot.Entry> changed = new ArrayList<>();
+        List<SummaryDelta.Removal> removed = new ArrayList<>();
+        changedMatches.forEach((match, type) -> {
+            if (type == SummaryChange.Type.REMOVED) {
+                removed.add(new SummaryDelta.Removal(match.homeTeam(), match.awayTeam(), match.startSequence()));
+            } else {
+                changed.add(SummarySnapshot.Entry.of(match));
+            }
+        });
+        long version = changes.isEmpty() ? sinceVersion : changes.get(changes.size() - 1).version();
+        return new SummaryDelta(sinceVersion, version, false, List.copyOf(changed), List.copyOf(removed));
+    }
+
+    /**
+     * Gets an immutable, versioned snapshot of the summary.
+     * Without a publisher, a snapshot is captured on the first read after the board has changed and shared by the
+     * reads that follow.
+     *
+     * @return the snapshot
+     */
+    public SummarySnapshot getSnapshot() {
+        ScoreboardMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        SummaryEvent event = new SummaryEvent();
+        event.begin();
+        SummarySnapshot snapshot = SummarySnapshot.EMPTY;
+        try {
+            snapshot = currentSnapshot();
+            return snapshot;
+        } finally {
+            metrics.stopTimer(ScoreboardMetrics.Operation.SUMMARY, startNanos);
+            event.finish(snapshot.entries().size(), snapshot.version());
+        }
+    }
+
+    private SummarySnapshot currentSnapshot() {
+        if (summaryPublisher != null) {
+            return summaryPublisher.snapshot();
+        }
+        SummarySnapshot snapshot = lastSnapshot;
+        if (snapshot.version() != matchRepository.getSummaryVersion()) {
+            snapshot = SummarySnapshot.capture(matchRepository, parallelThreshold);
+            lastSnapshot = snapshot;
         }
+        return snapshot;
     }
 
 }
@@ -0,0 +1,72 @@
+package org.worldcup.util;
+
+/**
+ * Generates match keys from interned team IDs.
+ * The key packs the home team ID into the high 32 bits and the away team ID into the low 32 bits of a long, so
+ * keys can be generated and compared without allocating.
+ * It pairs with {@link org.worldcup.repository.PackedKeyMatchRepository}, which stores matches under these keys.
+ */
+public class PackedMatchKeyGenerator implements MatchKeyGenerator {
+    public static final long NO_KEY = 0L;
+
+    private final TeamRegistry teamRegistry;
+
+    public PackedMatchKeyGenerator(TeamRegistry teamRegistry) {
+        this.teamRegistry = teamRegistry;
+    }
+
+    /**
+     * Generates the packed key as a string, for callers that only know the string-keyed API.
+     * Both teams are registered if needed.
+     */
+    @Override
+    public String generateKey(String homeTeam, String awayTeam) {
+        return Long.toString(registerKey(homeTeam, awayTeam));
+    }
+
+    /**
+     * Generates the key for a match, registering both teams if needed.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the packed key
+     */
+    public long registerKey(String homeTeam, String awayTeam) {
+        return packKey(teamRegistry.register(homeTeam), teamRegistry.register(awayTeam));
+    }
+
+    /**
+     * Generates the key for a match between registered teams.
+     *
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the packed key, or {@link #NO_KEY} if either team has never been registered
+     */
+    public long findKey(String homeTeam, String awayTeam) {
+        int homeId = teamRegistry.findId(homeTeam);
+        if (homeId == TeamRegistry.UNKNOWN_TEAM) {
+            return NO_KEY;
+        }
+        int awayId = teamRegistry.findId(awayTeam);
+        if (awayId == TeamRegistry.UNKNOWN_TEAM) {
+            return NO_KEY;
+        }
+        return packKey(homeId, awayId);
+    }
+
+    public TeamRegistry teamRegistry() {
+        return teamRegistry;
+    }
+
+    public static long packKey(int homeId, int awayId) {
+        return ((long) homeId << 32) | (awayId & 0xFFFFFFFFL);
+    }
+
+    public static int homeId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int awayId(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,18 @@
+package org.worldcup.util;
+
+/**
+ * The position of the last match of a summary page, from which the next page continues.
+ * It identifies the position by the score the match had when the page was read, so paging continues in order even if
+ * the match has changed or finished since.
+ *
+ * @param version the version of the board the page was read at
+ * @param totalScore the total score of the last match of the page
+ * @param startSequence the start sequence of the last match of the page
+ * @param homeTeam the home team of the last match of the page
+ */
+public record SummaryCursor(long version, int totalScore, long startSequence, String homeTeam) {
+
+    static SummaryCursor after(long version, SummarySnapshot.Entry entry) {
+        return new SummaryCursor(version, entry.totalScore(), entry.startSequence(), entry.homeTeam());
+    }
+}
@@ -0,0 +1,32 @@
+package org.worldcup.util;
+
+import java.util.List;
+
+/**
+ * The changes to the summary between two versions of the board.
+ * Apply it to a copy of the summary read at {@code sinceVersion} to bring the copy to {@code version}: replace the
+ * matches in {@code changed}, drop those in {@code removed}, and sort again by total score and start sequence. A full
+ * delta replaces the copy instead.
+ * <p>
+ * Changed matches are read when the delta is built, so they may already show changes made after {@code version};
+ * those changes are sent again by the next delta.
+ *
+ * @param sinceVersion the version the delta starts from
+ * @param version the version to read the next delta from
+ * @param full true if the change log no longer reached back to {@code sinceVersion}, so {@code changed} holds every live match
+ * @param changed the matches that were started or whose score changed
+ * @param removed the matches that were finished
+ */
+public record SummaryDelta(long sinceVersion, long version, boolean full, List<SummarySnapshot.Entry> changed,
+                           List<Removal> removed) {
+
+    static SummaryDelta full(long sinceVersion, SummarySnapshot snapshot) {
+        return new SummaryDelta(sinceVersion, snapshot.version(), true, snapshot.entries(), List.of());
+    }
+
+    /**
+     * A finished match. The start sequence tells it apart from a later match between the same teams.
+     */
+    public record Removal(String homeTeam, String awayTeam, long startSequence) {
+    }
+}
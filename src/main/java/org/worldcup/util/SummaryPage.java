@@ -0,0 +1,17 @@
+package org.worldcup.util;
+
+import java.util.List;
+
+/**
+ * One page of the summary.
+ *
+ * @param version the version of the board the page was read at; pages of one version are consistent with each other
+ * @param lines the matches of the page in summary order
+ * @param nextCursor the cursor to read the next page from, or null if this is the last page
+ */
+public record SummaryPage(long version, List<String> lines, SummaryCursor nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,134 @@
+package org.worldcup.util;
+
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.MatchRepository;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes immutable summary snapshots through a single volatile reference, so any number of readers get a
+ * consistent board with one volatile read and no locking.
+ * Snapshots are either published by the writer on each change, or coalesced and published once per tick by a
+ * background thread. A published snapshot never replaces one with a newer version.
+ * Once closed, a publisher ignores the changes of the board; closing a ticking publisher also waits for a tick that
+ * was publishing, so its thread never outlives {@link #close()}.
+ */
+public class SummaryPublisher implements MatchEventListener, Closeable {
+    private final MatchRepository matchRepository;
+    private final AtomicReference<SummarySnapshot> snapshot;
+    private final ScheduledExecutorService ticker;
+    private volatile boolean closed;
+
+    /**
+     * Creates a publisher that publishes a snapshot on each change.
+     * Register it with {@link MatchManager#addListener(MatchEventListener)}. Every change then pays for capturing the
+     * whole board, so prefer the ticking publisher for large boards.
+     *
+     * @param matchRepository the repository to publish the summary of
+     */
+    public SummaryPublisher(MatchRepository matchRepository) {
+        this.matchRepository = matchRepository;
+        this.snapshot = new AtomicReference<>(SummarySnapshot.capture(matchRepository));
+        this.ticker = null;
+    }
+
+    /**
+     * Creates a publisher that publishes at most one snapshot per tick, and only if the board has changed.
+     * It does not need to be registered as a listener. Close it to stop publishing.
+     *
+     * @param matchRepository the repository to publish the summary of
+     * @param tick the time between two publications
+     * @throws IllegalArgumentException if the tick is not positive
+     */
+    public SummaryPublisher(MatchRepository matchRepository, Duration tick) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.matchRepository = matchRepository;
+        this.snapshot = new AtomicReference<>(SummarySnapshot.capture(matchRepository));
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "summary-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickNanos = tick.toNanos();
+        ticker.scheduleAtFixedRate(this::publishIfChanged, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the latest published snapshot.
+     *
+     * @return the snapshot
+     */
+    public SummarySnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    MatchRepository matchRepository() {
+        return matchRepository;
+    }
+
+    @Override
+    public void matchStarted(Match match) {
+        publishOnChange();
+    }
+
+    @Override
+    public void matchFinished(Match match) {
+        publishOnChange();
+    }
+
+    @Override
+    public void scoreChanged(Match match, TeamType teamType, int delta) {
+        publishOnChange();
+    }
+
+    /**
+     * Stops publishing. The ticking thread is interrupted and awaited; a capture never blocks, so the wait is short.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ticker != null) {
+            ticker.shutdownNow();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    if (ticker.awaitTermination(1, TimeUnit.SECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void publishOnChange() {
+        if (ticker == null && !closed) {
+            publish();
+        }
+    }
+
+    private void publishIfChanged() {
+        if (!closed && matchRepository.getSummaryVersion() != snapshot.get().version()) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        SummarySnapshot captured = SummarySnapshot.capture(matchRepository);
+        snapshot.accumulateAndGet(captured, (current, next) -> next.version() > current.version() ? next : current);
+    }
+}
@@ -0,0 +1,259 @@
+package org.worldcup.util;
+
+import org.worldcup.model.Match;
+import org.worldcup.model.MatchLine;
+import org.worldcup.model.Score;
+import org.worldcup.repository.MatchRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An immutable summary of the live matches at one version of the board.
+ * Each entry holds one consistent reading of its score, so a snapshot never shows a home score from before a goal
+ * next to an away score from after it. Compare versions to skip rendering a board that has not changed.
+ * The lines are the cached lines of the matches, so capturing a board only renders the matches whose score changed.
+ */
+public final class SummarySnapshot {
+    public static final SummarySnapshot EMPTY = new SummarySnapshot(0, List.of());
+
+    /**
+     * The order of a summary: highest total score first, then the most recently started match, then by home team.
+     */
+    public static final Comparator<Entry> SUMMARY_ORDER = Comparator.comparingInt(Entry::totalScore).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::startSequence).reversed())
+            .thenComparing(Entry::homeTeam);
+
+    /**
+     * The number of matches from which a summary is captured in parallel, unless a generator sets another threshold.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 65_536;
+
+    private final long version;
+    private final List<Entry> entries;
+    private final List<String> lines;
+
+    private SummarySnapshot(long version, List<Entry> entries) {
+        this.version = version;
+        this.entries = entries;
+        this.lines = entries.stream().map(entry -> entry.line().text()).toList();
+    }
+
+    /**
+     * Captures the summary of a repository, in parallel once it holds at least the default number of matches.
+     */
+    static SummarySnapshot capture(MatchRepository matchRepository) {
+        return capture(matchRepository, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Captures the summary of a repository.
+     * The matches are read from {@link MatchRepository#getSummarizedMatches()} and sorted, because a walk of the summary
+     * order can skip or repeat a match whose score changes under it.
+     * The capture is never retried: each pass holds every live match once, so there is no torn pass to set aside.
+     * The snapshot is labelled with the version read before the capture, so it shows at least every change up to that version.
+     * From the threshold on, the matches are split into chunks that are read and rendered on the common
+     * {@link java.util.concurrent.ForkJoinPool}, then sorted with a parallel merge sort. Both paths read the same matches
+     * and the order is total, so the result is the same as a sequential capture.
+     *
+     * @param matchRepository the repository to read
+     * @param parallelThreshold the number of matches from which the capture runs in parallel
+     * @return the snapshot
+     */
+    static SummarySnapshot capture(MatchRepository matchRepository, int parallelThreshold) {
+        long version = matchRepository.getSummaryVersion();
+        int matchCount = matchRepository.countMatches();
+        List<Entry> entries;
+        if (matchCount >= parallelThreshold) {
+            Entry[] parallelEntries = matchRepository.getSummarizedMatches().parallelStream()
+                    .map(Entry::of)
+                    .toArray(Entry[]::new);
+            Arrays.parallelSort(parallelEntries, SUMMARY_ORDER);
+            entries = Arrays.asList(parallelEntries);
+        } else {
+            entries = new ArrayList<>(matchCount);
+            for (Match match : matchRepository.getSummarizedMatches()) {
+                entries.add(Entry.of(match));
+            }
+            entries.sort(SUMMARY_ORDER);
+        }
+        return new SummarySnapshot(version, Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * Captures the first matches of the summary of a repository without sorting or rendering the others.
+     * The matches are selected from {@link MatchRepository#getSummarizedMatches()} with a heap bounded by the limit,
+     * since a walk of the summary order can skip or repeat a match whose score changes under it. The selected matches
+     * are sorted by the scores read when they are rendered, like a full capture.
+     *
+     * @param matchRepository the repository to read
+     * @param limit the maximum number of matches
+     * @return the lines of the first matches in summary order
+     */
+    static List<String> captureTop(MatchRepository matchRepository, int limit) {
+        if (limit == 0) {
+            return List.of();
+        }
+        // The head of the heap is the last of the first matches found so far
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Math.min(limit, matchRepository.countMatches()) + 1,
+                Candidate.ORDER.reversed());
+        for (Match match : matchRepository.getSummarizedMatches()) {
+            Candidate candidate = new Candidate(match, match.score().getState());
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (Candidate.ORDER.compare(candidate, top.peek()) < 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+        List<Entry> entries = new ArrayList<>(top.size());
+        for (Candidate candidate : top) {
+            entries.add(Entry.of(candidate.match()));
+        }
+        entries.sort(SUMMARY_ORDER);
+        return entries.stream().map(entry -> entry.line().text()).toList();
+    }
+
+    /**
+     * Gets one page of this snapshot.
+     *
+     * @param after the cursor to continue from, or null to start at the top
+     * @param limit the maximum number of matches
+     * @return the page, which shares the lines of this snapshot
+     */
+    SummaryPage page(SummaryCursor after, int limit) {
+        int start = after == null ? 0 : indexAfter(after);
+        int end = (int) Math.min((long) start + limit, entries.size());
+        SummaryCursor nextCursor = end < entries.size() ? SummaryCursor.after(version, entries.get(end - 1)) : null;
+        return new SummaryPage(version, lines.subList(start, end), nextCursor);
+    }
+
+    /**
+     * Finds the first entry that comes after the cursor in summary order.
+     */
+    private int indexAfter(SummaryCursor cursor) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Entry entry = entries.get(middle);
+            int comparison = Integer.compare(cursor.totalScore(), entry.totalScore());
+            if (comparison == 0) {
+                comparison = Long.compare(cursor.startSequence(), entry.startSequence());
+            }
+            if (comparison == 0) {
+                comparison = entry.homeTeam().compareTo(cursor.homeTeam());
+            }
+            if (comparison <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the matches in summary order
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return the matches in summary order, rendered like {@link Match#toString()}
+     */
+    public List<String> lines() {
+        return lines;
+    }
+
+    /**
+     * Captures one page of the summary of a repository, walking its summary order from the cursor.
+     * Only the matches of the page are read, so the page costs no more than its own size whatever the size of the board.
+     * A match that a concurrent reorder shows twice in the walk is kept once; the page is labelled with the version
+     * read before the walk.
+     *
+     * @param matchRepository the repository to read
+     * @param after the cursor to continue from, or null to start at the top
+     * @param limit the maximum number of matches
+     * @return the page
+     */
+    static SummaryPage capturePage(MatchRepository matchRepository, SummaryCursor after, int limit) {
+        long version = matchRepository.getSummaryVersion();
+        Collection<Match> matches = after == null
+                ? matchRepository.getMatchesInSummaryOrder()
+                : matchRepository.getMatchesInSummaryOrderAfter(after.totalScore(), after.startSequence(), after.homeTeam());
+        int capacity = Math.min(limit, matchRepository.countMatches());
+        List<Entry> entries = new ArrayList<>(capacity);
+        Set<Match> seen = Collections.newSetFromMap(new IdentityHashMap<>(capacity));
+        Iterator<Match> iterator = matches.iterator();
+        while (entries.size() < limit && iterator.hasNext()) {
+            Match match = iterator.next();
+            if (seen.add(match)) {
+                entries.add(Entry.of(match));
+            }
+        }
+        entries.sort(SUMMARY_ORDER);
+        SummaryCursor nextCursor = iterator.hasNext() && !entries.isEmpty()
+                ? SummaryCursor.after(version, entries.get(entries.size() - 1)) : null;
+        return new SummaryPage(version, entries.stream().map(entry -> entry.line().text()).toList(), nextCursor);
+    }
+
+    /**
+     * A match competing for the first places of a summary, with the score it was compared by.
+     */
+    private record Candidate(Match match, long scoreState) {
+        static final Comparator<Candidate> ORDER = Comparator
+                .comparingInt((Candidate candidate) -> Score.totalScore(candidate.scoreState())).reversed()
+                .thenComparing(Comparator.comparingLong((Candidate candidate) -> candidate.match().startSequence()).reversed())
+                .thenComparing(candidate -> candidate.match().homeTeam());
+    }
+
+    /**
+     * One match of a snapshot.
+     *
+     * @param line the rendered line of the match, which also holds the score it was rendered for
+     */
+    public record Entry(String homeTeam, String awayTeam, long startSequence, MatchLine line) {
+
+        static Entry of(Match match) {
+            return new Entry(match.homeTeam(), match.awayTeam(), match.startSequence(), match.line());
+        }
+
+        /**
+         * @return the packed score, see {@link Score#getState()}
+         */
+        public long scoreState() {
+            return line.scoreState();
+        }
+
+        public int homeScore() {
+            return Score.homeScore(scoreState());
+        }
+
+        public int awayScore() {
+            return Score.awayScore(scoreState());
+        }
+
+        public int totalScore() {
+            return Score.totalScore(scoreState());
+        }
+
+        @Override
+        public String toString() {
+            return line.text();
+        }
+    }
+}
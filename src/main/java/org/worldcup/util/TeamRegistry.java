@@ -0,0 +1,138 @@
+package org.worldcup.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns team names to small integer IDs.
+ * Team names are compared ignoring case, so "Brazil" and "BRAZIL" get the same ID.
+ * Each team keeps the spelling it was first registered with.
+ * Looking up a registered team neither locks nor allocates; only registering a new team takes a lock.
+ */
+public class TeamRegistry {
+    public static final int UNKNOWN_TEAM = 0;
+
+    private volatile Table table = new Table(64);
+    private volatile String[] teamNames = new String[64];
+    private int teamCount;
+
+    /**
+     * Finds the ID of a registered team.
+     *
+     * @param teamName the name of the team, in any case
+     * @return the ID of the team, or {@link #UNKNOWN_TEAM} if the team has not been registered
+     */
+    public int findId(String teamName) {
+        return table.find(teamName);
+    }
+
+    /**
+     * Gets the ID of a team, registering the team first if needed.
+     *
+     * @param teamName the name of the team, in any case
+     * @return the ID of the team, which is always greater than zero
+     */
+    public int register(String teamName) {
+        int id = findId(teamName);
+        if (id != UNKNOWN_TEAM) {
+            return id;
+        }
+        synchronized (this) {
+            id = findId(teamName);
+            if (id != UNKNOWN_TEAM) {
+                return id;
+            }
+            id = ++teamCount;
+            if (id >= teamNames.length) {
+                teamNames = Arrays.copyOf(teamNames, teamNames.length * 2);
+            }
+            teamNames[id] = teamName;
+            if (teamCount * 2 > table.capacity()) {
+                table = table.resize(table.capacity() * 2);
+            }
+            table.insert(new Entry(teamName, id));
+            return id;
+        }
+    }
+
+    /**
+     * Gets the name of a team as it was first registered.
+     *
+     * @param id the ID of the team
+     * @return the name of the team
+     * @throws IllegalArgumentException if no team has the given ID
+     */
+    public String nameOf(int id) {
+        String[] names = teamNames;
+        if (id <= UNKNOWN_TEAM || id >= names.length || names[id] == null) {
+            throw new IllegalArgumentException("Unknown team ID: " + id);
+        }
+        return names[id];
+    }
+
+    public synchronized int countTeams() {
+        return teamCount;
+    }
+
+    /**
+     * Hashes a team name the same way for every spelling that {@link String#equalsIgnoreCase(String)} accepts.
+     */
+    private static int hash(String teamName) {
+        int hash = 0;
+        for (int i = 0; i < teamName.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(teamName.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Entry(String teamName, int id) {
+    }
+
+    /**
+     * An open-addressing hash table with linear probing.
+     * Entries are never removed, and the table is replaced instead of resized in place, so readers need no lock.
+     */
+    private static final class Table {
+        private final AtomicReferenceArray<Entry> entries;
+        private final int mask;
+
+        private Table(int capacity) {
+            entries = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return entries.length();
+        }
+
+        private int find(String teamName) {
+            for (int i = hash(teamName) & mask; ; i = (i + 1) & mask) {
+                Entry entry = entries.get(i);
+                if (entry == null) {
+                    return UNKNOWN_TEAM;
+                } else if (entry.teamName().equalsIgnoreCase(teamName)) {
+                    return entry.id();
+                }
+            }
+        }
+
+        private void insert(Entry entry) {
+            int i = hash(entry.teamName()) & mask;
+            while (entries.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            entries.set(i, entry);
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < entries.length(); i++) {
+                Entry entry = entries.get(i);
+                if (entry != null) {
+                    resized.insert(entry);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.worldcup.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchArchiveTest {
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private MatchArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        archive = new MatchArchive();
+        matchManager.addListener(archive);
+    }
+
+    private void play(String homeTeam, String awayTeam, int homeScore, int awayScore) {
+        matchManager.startMatch(homeTeam, awayTeam);
+        for (int i = 0; i < homeScore; i++) {
+            scoreManager.updateScore(homeTeam, awayTeam, TeamType.HOME_TEAM);
+        }
+        for (int i = 0; i < awayScore; i++) {
+            scoreManager.updateScore(homeTeam, awayTeam, TeamType.AWAY_TEAM);
+        }
+        matchManager.finishMatch(homeTeam, awayTeam);
+    }
+
+    @Test
+    @DisplayName("Given: A finished match. When: It is read from the archive. Then: Its final result must be kept in finish order")
+    void finishedMatchesAreArchived() {
+        matchManager.startMatch("Mexico", "Canada");
+        play("Spain", "Brazil", 10, 2);
+        scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        matchManager.finishMatch("Mexico", "Canada");
+
+        assertEquals(2, archive.size());
+        assertEquals("Spain", archive.homeTeam(0));
+        assertEquals("Brazil", archive.awayTeam(0));
+        assertEquals(10, archive.homeScore(0));
+        assertEquals(2, archive.awayScore(0));
+        assertEquals("Mexico", archive.homeTeam(1));
+        assertEquals(1, archive.awayScore(1));
+        assertTrue(archive.startSequence(1) < archive.startSequence(0));
+        assertEquals(13, archive.totalGoals());
+        assertThrows(IndexOutOfBoundsException.class, () -> archive.homeScore(2));
+    }
+
+    @Test
+    @DisplayName("Given: Several results of a team. When: Its results and head-to-head history are scanned. Then: They must add up")
+    void resultsAndHeadToHead() {
+        play("Spain", "Brazil", 2, 1);
+        play("Brazil", "Spain", 3, 3);
+        play("Spain", "Germany", 0, 1);
+        play("Brazil", "Spain", 1, 0);
+
+        MatchArchive.TeamResults spain = archive.resultsOf("Spain");
+        assertEquals(new MatchArchive.TeamResults(1, 1, 2, 5, 6), spain);
+        assertEquals(4, spain.played());
+        assertEquals(new MatchArchive.TeamResults(1, 1, 1, 5, 5), archive.headToHead("Spain", "Brazil"));
+        assertArrayEquals(new int[]{0, 1, 3}, archive.matchesBetween("Brazil", "Spain"));
+        assertEquals(0, archive.resultsOf("Uruguay").played());
+        assertEquals(0, archive.matchesBetween("Spain", "Uruguay").length);
+    }
+
+    @Test
+    @DisplayName("Given: More matches than a chunk holds, archived concurrently. When: The archive is scanned. Then: Every match must be counted once")
+    void concurrentArchivingAcrossChunks() throws Exception {
+        int threads = 4;
+        int perThread = MatchArchive.CHUNK_SIZE;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                String team = "Team" + thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        archive.archive(team, "Rival", 1, 0, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, archive.size());
+        assertEquals(threads * perThread, archive.totalGoals());
+        assertEquals(new MatchArchive.TeamResults(perThread, 0, 0, perThread, 0), archive.resultsOf("Team2"));
+        assertEquals(threads * perThread, archive.resultsOf("Rival").losses());
+    }
+}
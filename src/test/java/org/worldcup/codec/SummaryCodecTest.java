@@ -0,0 +1,129 @@
+package org.worldcup.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+import org.worldcup.util.SummarySnapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryCodecTest {
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private MatchSummaryGenerator summaryGenerator;
+    private SummaryEncoder encoder;
+    private SummaryDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        encoder = new SummaryEncoder();
+        decoder = new SummaryDecoder();
+    }
+
+    private ByteBuffer encodeTeams(int firstTeamId) {
+        ByteBuffer teams = ByteBuffer.allocate(1024);
+        encoder.encodeTeams(firstTeamId, teams);
+        return teams.flip();
+    }
+
+    @Test
+    @DisplayName("Given: A board with scores. When: Its summary is encoded and decoded. Then: The decoded summary must match and be smaller than the text")
+    void summaryRoundTrip() {
+        for (int i = 0; i < 50; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            for (int goal = 0; goal < i % 5; goal++) {
+                scoreManager.updateScore("Home" + i, "Away" + i, TeamType.values()[goal % 2]);
+            }
+        }
+        SummarySnapshot snapshot = summaryGenerator.getSnapshot();
+        ByteBuffer buffer = ByteBuffer.allocate(SummaryEncoder.maxSummarySize(snapshot.entries().size()));
+        encoder.encodeSummary(snapshot, buffer);
+        buffer.flip();
+        decoder.decodeTeams(encodeTeams(1));
+
+        int binarySize = buffer.remaining();
+        SummaryDecoder.DecodedSummary decoded = decoder.decodeSummary(buffer);
+
+        assertEquals(snapshot.version(), decoded.version());
+        assertEquals(snapshot.lines(), decoded.lines());
+        assertFalse(buffer.hasRemaining());
+        assertTrue(binarySize * 3 < String.join("\n", snapshot.lines()).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("Given: A match and a score. When: They are encoded and decoded. Then: The teams, start sequence and scores must be kept")
+    void matchAndScoreRoundTrip() {
+        matchManager.startMatch("C\u00f4te d'Ivoire", "Canada");
+        for (int goal = 0; goal < 300; goal++) {
+            scoreManager.updateScore("C\u00f4te d'Ivoire", "Canada", TeamType.AWAY_TEAM);
+        }
+        Match match = matchManager.findMatch("C\u00f4te d'Ivoire", "Canada");
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        encoder.encodeMatch(match, buffer);
+        encoder.encodeScore(Score.withScore(0, TeamType.HOME_TEAM, Score.MAX_SCORE), buffer);
+        buffer.flip();
+        decoder.decodeTeams(encodeTeams(1));
+
+        Match decoded = decoder.decodeMatch(buffer);
+        assertEquals("C\u00f4te d'Ivoire 0 - Canada 300", decoded.toString());
+        assertEquals(match.startSequence(), decoded.startSequence());
+        assertEquals(Score.MAX_SCORE, Score.homeScore(decoder.decodeScore(buffer)));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Given: A shared encoded summary. When: It is read again before and after a change. Then: The bytes must be shared until the board changes")
+    void sharedSummary() {
+        matchManager.startMatch("Mexico", "Canada");
+        ByteBuffer first = encoder.encodeShared(summaryGenerator.getSnapshot());
+        ByteBuffer second = encoder.encodeShared(summaryGenerator.getSnapshot());
+        assertTrue(first.isReadOnly());
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        decoder.decodeTeams(encodeTeams(1));
+        assertEquals("Mexico 0 - Canada 0", decoder.decodeSummary(first).lines().get(0));
+        assertEquals(0, second.position());
+
+        scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        ByteBuffer changed = encoder.encodeShared(summaryGenerator.getSnapshot());
+        assertEquals("Mexico 1 - Canada 0", decoder.decodeSummary(changed).lines().get(0));
+    }
+
+    @Test
+    @DisplayName("Given: Teams learned in steps. When: Unknown IDs or formats are decoded. Then: They must be rejected")
+    void teamsAndInvalidInput() {
+        matchManager.startMatch("Mexico", "Canada");
+        ByteBuffer mexico = ByteBuffer.allocate(64);
+        encoder.encodeMatch(matchManager.findMatch("Mexico", "Canada"), mexico);
+        ByteBuffer teams = ByteBuffer.allocate(64);
+        int nextTeamId = encoder.encodeTeams(1, teams);
+        assertEquals(3, nextTeamId);
+
+        matchManager.startMatch("Spain", "Brazil");
+        ByteBuffer spain = ByteBuffer.allocate(64);
+        encoder.encodeMatch(matchManager.findMatch("Spain", "Brazil"), spain);
+        decoder.decodeTeams(teams.flip());
+        assertEquals("Mexico 0 - Canada 0", decoder.decodeMatch(mexico.flip()).toString());
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeMatch(spain.flip()));
+
+        decoder.decodeTeams(encodeTeams(nextTeamId));
+        assertEquals("Spain 0 - Brazil 0", decoder.decodeMatch(spain.rewind()).toString());
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeSummary(ByteBuffer.wrap(new byte[]{9, 0, 0})));
+    }
+}
@@ -0,0 +1,170 @@
+package org.worldcup.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreboardHttpServerTest {
+
+    private ScoreboardHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        InMemoryMatchRepository repository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(repository, new SimpleMatchKeyGenerator());
+        server = new ScoreboardHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), matchManager,
+                new ScoreManager(matchManager), new MatchSummaryGenerator(repository));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String pathAndQuery) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(pathAndQuery)).method(method, HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.port() + pathAndQuery);
+    }
+
+    @Test
+    @DisplayName("Given: A running server. When: A match is started, scored and finished over HTTP. Then: The scoreboard must follow")
+    void matchLifecycle() throws IOException, InterruptedException {
+        assertEquals(201, send("POST", "/matches?home=Mexico&away=Canada").statusCode());
+        assertEquals(204, send("POST", "/matches/goal?home=Mexico&away=Canada&team=home").statusCode());
+        assertEquals(204, send("POST", "/matches/goal?home=Mexico&away=Canada&team=away").statusCode());
+        assertEquals(204, send("POST", "/matches/infraction?home=Mexico&away=Canada&team=away").statusCode());
+
+        HttpResponse<String> score = send("GET", "/matches?home=Mexico&away=Canada");
+        assertEquals(200, score.statusCode());
+        assertEquals("Mexico 1 - Canada 0", score.body());
+        assertEquals("Mexico 1 - Canada 0\n", send("GET", "/summary").body());
+
+        assertEquals(204, send("DELETE", "/matches?home=Mexico&away=Canada").statusCode());
+        assertEquals("", send("GET", "/summary").body());
+    }
+
+    @Test
+    @DisplayName("Given: Invalid requests. When: They are sent. Then: They must be answered with the matching error status")
+    void errorStatuses() throws IOException, InterruptedException {
+        send("POST", "/matches?home=Mexico&away=Canada");
+
+        assertEquals(404, send("GET", "/matches?home=Spain&away=Brazil").statusCode());
+        assertEquals(409, send("POST", "/matches?home=Mexico&away=Canada").statusCode());
+        assertEquals(400, send("POST", "/matches?home=Mexico").statusCode());
+        assertEquals(400, send("POST", "/matches/goal?home=Mexico&away=Canada&team=both").statusCode());
+        assertEquals(400, send("GET", "/summary?limit=-1").statusCode());
+
+        HttpResponse<String> wrongMethod = send("GET", "/matches/goal?home=Mexico&away=Canada&team=home");
+        assertEquals(405, wrongMethod.statusCode());
+        assertEquals("POST", wrongMethod.headers().firstValue("Allow").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Given: A summary ETag. When: The board has not changed. Then: The summary must not be sent again")
+    void notModifiedUntilTheBoardChanges() throws IOException, InterruptedException {
+        send("POST", "/matches?home=Mexico&away=Canada");
+        send("POST", "/matches?home=Spain&away=Brazil");
+        send("POST", "/matches/goal?home=Spain&away=Brazil&team=home");
+
+        HttpResponse<String> first = send("GET", "/summary");
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        HttpRequest conditional = HttpRequest.newBuilder(uri("/summary")).header("If-None-Match", etag).build();
+        HttpResponse<String> unchanged = send(conditional);
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+
+        HttpResponse<String> top = send("GET", "/summary?limit=1");
+        assertEquals("Spain 1 - Brazil 0\n", top.body());
+        assertNotEquals(etag, top.headers().firstValue("ETag").orElseThrow());
+
+        send("POST", "/matches/goal?home=Mexico&away=Canada&team=away");
+        HttpResponse<String> changed = send(conditional);
+        assertEquals(200, changed.statusCode());
+        assertEquals("Spain 1 - Brazil 0\nMexico 0 - Canada 1\n", changed.body());
+    }
+
+    @Test
+    @DisplayName("Given: A summary ETag. When: The server is restarted with a board at the same version. Then: The summary must be sent again")
+    void etagDoesNotSurviveARestart() throws IOException, InterruptedException {
+        send("POST", "/matches?home=Mexico&away=Canada");
+        String etag = send("GET", "/summary").headers().firstValue("ETag").orElseThrow();
+
+        server.close();
+        setUp();
+        send("POST", "/matches?home=Spain&away=Brazil");
+        HttpResponse<String> restarted = send(HttpRequest.newBuilder(uri("/summary")).header("If-None-Match", etag).build());
+
+        assertEquals(200, restarted.statusCode());
+        assertEquals("Spain 0 - Brazil 0\n", restarted.body());
+    }
+
+    @Test
+    @DisplayName("Given: Many concurrent pollers on loopback. When: A writer scores goals meanwhile. Then: Every poll must succeed and the last must see every goal")
+    void loopbackLoad() throws IOException, InterruptedException {
+        send("POST", "/matches?home=Mexico&away=Canada");
+        Set<Integer> statuses = ConcurrentHashMap.newKeySet();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(33);
+        executorService.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                try {
+                    send("POST", "/matches/goal?home=Mexico&away=Canada&team=home");
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        IntStream.range(0, 32).forEach(i -> executorService.submit(() -> {
+            String etag = "";
+            for (int j = 0; j < 100; j++) {
+                try {
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/summary")).header("If-None-Match", etag).build());
+                    statuses.add(response.statusCode());
+                    etag = response.headers().firstValue("ETag").orElse("");
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        }));
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(0, failures.get());
+        assertTrue(List.of(200, 304).containsAll(statuses), statuses.toString());
+        assertEquals("Mexico 100 - Canada 0\n", send("GET", "/summary").body());
+    }
+}
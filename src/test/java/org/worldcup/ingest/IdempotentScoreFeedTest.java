@@ -0,0 +1,189 @@
+package org.worldcup.ingest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.journal.MatchJournal;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.model.Score;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentScoreFeedTest {
+
+    private MatchManager matchManager;
+    private IdempotentScoreFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        feed = new IdempotentScoreFeed(matchManager);
+        matchManager.startMatch("Mexico", "Canada");
+    }
+
+    private String score() {
+        return matchManager.findMatch("Mexico", "Canada").toString();
+    }
+
+    @Test
+    @DisplayName("Given: A feed that replays its events. When: The events are applied again. Then: Each sequence must count once")
+    void replayedEventsAreDropped() {
+        ScoreEvent homeGoal = ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM);
+        ScoreEvent awayGoal = ScoreEvent.goal("Mexico", "Canada", TeamType.AWAY_TEAM);
+
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(0, homeGoal));
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(2, awayGoal));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(0, homeGoal));
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(1, homeGoal));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(2, awayGoal));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(1, homeGoal));
+
+        assertEquals("Mexico 2 - Canada 1", score());
+        assertEquals(2, feed.highestSequence("Mexico", "Canada"));
+    }
+
+    @Test
+    @DisplayName("Given: A goal ignored at the maximum score. When: It is redelivered after the score dropped. Then: It must stay a duplicate")
+    void ignoredEventsUseUpTheirSequence() {
+        matchManager.findMatch("Mexico", "Canada").score()
+                .updateState(state -> Score.withScore(state, TeamType.HOME_TEAM, Score.MAX_SCORE));
+        ScoreEvent homeGoal = ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM);
+
+        assertEquals(ScoreEvent.Result.SCORE_AT_MAXIMUM, feed.apply(0, homeGoal));
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(1, ScoreEvent.infraction("Mexico", "Canada", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(0, homeGoal));
+        assertEquals(Score.MAX_SCORE - 1, matchManager.findMatch("Mexico", "Canada").score().getHomeScore());
+    }
+
+    @Test
+    @DisplayName("Given: Events that cannot be applied. When: They are fed. Then: They must be reported without throwing")
+    void invalidEventsAreReported() {
+        assertEquals(ScoreEvent.Result.SCORE_AT_MINIMUM, feed.apply(0, ScoreEvent.infraction("Mexico", "Canada", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(0, ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.MATCH_NOT_FOUND, feed.apply(1, ScoreEvent.goal("Spain", "Brazil", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.INVALID, feed.apply(1, ScoreEvent.goal("Mexico", "", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.INVALID, feed.apply(-1, ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM)));
+        assertEquals(ScoreEvent.Result.INVALID, feed.apply(1, ScoreEvent.goal("Mexico", "Canada", null)));
+        assertEquals("Mexico 0 - Canada 0", score());
+    }
+
+    @Test
+    @DisplayName("Given: A feed far ahead of an old event. When: The old event arrives. Then: It must be dropped as already applied")
+    void eventsBelowTheWindowAreDropped() {
+        ScoreEvent goal = ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM);
+        for (long sequence = 0; sequence < 3 * SequenceWindow.SIZE; sequence += 2) {
+            assertEquals(ScoreEvent.Result.APPLIED, feed.apply(sequence, goal));
+        }
+        long highest = 3 * SequenceWindow.SIZE - 2;
+
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(highest - SequenceWindow.SIZE + 1, goal));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(highest - SequenceWindow.SIZE - 1, goal));
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(highest + 10 * SequenceWindow.SIZE, goal));
+        assertEquals(ScoreEvent.Result.DUPLICATE, feed.apply(highest, goal));
+        assertEquals("Mexico " + (3 * SequenceWindow.SIZE / 2 + 2) + " - Canada 0", score());
+    }
+
+    @Test
+    @DisplayName("Given: Several consumers replaying the same feed concurrently. When: They finish. Then: Every goal must count once")
+    void concurrentReplaysCountOnce() throws Exception {
+        int consumers = 4;
+        int events = 5_000;
+        ScoreEvent goal = ScoreEvent.goal("Mexico", "Canada", TeamType.AWAY_TEAM);
+        CyclicBarrier barrier = new CyclicBarrier(consumers);
+        ExecutorService executor = Executors.newFixedThreadPool(consumers);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int consumer = 0; consumer < consumers; consumer++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    int applied = 0;
+                    for (int sequence = 0; sequence < events; sequence++) {
+                        if (feed.apply(sequence, goal) == ScoreEvent.Result.APPLIED) {
+                            applied++;
+                        }
+                    }
+                    return applied;
+                }));
+            }
+            int applied = 0;
+            for (Future<Integer> future : futures) {
+                applied += future.get();
+            }
+            assertEquals(events, applied);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("Mexico 0 - Canada " + events, score());
+    }
+
+    @Test
+    @DisplayName("Given: A finished match. When: It is started again. Then: Its sequences must start over")
+    void finishedMatchesStartOver() {
+        ScoreEvent goal = ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM);
+        feed.apply(0, goal);
+        matchManager.finishMatch("Mexico", "Canada");
+        assertEquals(0, feed.windowCount());
+
+        matchManager.startMatch("Mexico", "Canada");
+        assertEquals(-1, feed.highestSequence("Mexico", "Canada"));
+        assertEquals(ScoreEvent.Result.APPLIED, feed.apply(0, goal));
+        assertEquals("Mexico 1 - Canada 0", score());
+    }
+
+    @Test
+    @DisplayName("Given: A journaled feed. When: The board and a new feed are recovered from the journal and the feed is replayed. Then: Each sequence must count once")
+    void journaledSequencesSurviveFailover() throws Exception {
+        Path file = Files.createTempFile("scoreboard", ".journal");
+        Files.delete(file);
+        try {
+            MatchJournal journal = new MatchJournal(file);
+            MatchManager primaryManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+            primaryManager.addListener(journal);
+            IdempotentScoreFeed primaryFeed = new IdempotentScoreFeed(primaryManager, journal);
+            primaryManager.startMatch("Spain", "Brazil");
+            primaryManager.startMatch("Mexico", "Canada");
+            assertEquals(ScoreEvent.Result.APPLIED, primaryFeed.apply(0, ScoreEvent.goal("Spain", "Brazil", TeamType.HOME_TEAM)));
+            primaryManager.finishMatch("Spain", "Brazil");
+            primaryManager.startMatch("Spain", "Brazil");
+            assertEquals(ScoreEvent.Result.APPLIED, primaryFeed.apply(0, ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM)));
+            assertEquals(ScoreEvent.Result.APPLIED, primaryFeed.apply(2, ScoreEvent.goal("Mexico", "Canada", TeamType.AWAY_TEAM)));
+            journal.sync().join();
+            journal.close();
+
+            MatchJournal recoveredJournal = new MatchJournal(file);
+            try {
+                InMemoryMatchRepository recoveredRepository = new InMemoryMatchRepository();
+                recoveredJournal.replay(recoveredRepository, new SimpleMatchKeyGenerator());
+                MatchManager recoveredManager = new MatchManager(recoveredRepository, new SimpleMatchKeyGenerator());
+                recoveredManager.addListener(recoveredJournal);
+                IdempotentScoreFeed recoveredFeed = new IdempotentScoreFeed(recoveredManager, recoveredJournal);
+
+                assertEquals(2, recoveredFeed.highestSequence("Mexico", "Canada"));
+                assertEquals(-1, recoveredFeed.highestSequence("Spain", "Brazil"));
+                assertEquals(ScoreEvent.Result.DUPLICATE, recoveredFeed.apply(0, ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM)));
+                assertEquals(ScoreEvent.Result.APPLIED, recoveredFeed.apply(1, ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM)));
+                assertEquals(ScoreEvent.Result.DUPLICATE, recoveredFeed.apply(2, ScoreEvent.goal("Mexico", "Canada", TeamType.AWAY_TEAM)));
+                assertEquals(ScoreEvent.Result.APPLIED, recoveredFeed.apply(0, ScoreEvent.goal("Spain", "Brazil", TeamType.HOME_TEAM)));
+                assertEquals("Mexico 2 - Canada 1", recoveredManager.findMatch("Mexico", "Canada").toString());
+                assertEquals("Spain 1 - Brazil 0", recoveredManager.findMatch("Spain", "Brazil").toString());
+            } finally {
+                recoveredJournal.close();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.worldcup.ingest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.exceptions.MatchAlreadyStartedException;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestPipelineTest {
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+
+    @BeforeEach
+    void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+    }
+
+    @Test
+    @DisplayName("Given: Many producers and a small ring. When: Every wait strategy is used. Then: Every command must be applied")
+    void manyProducersWithEveryWaitStrategy() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            setUp();
+            try (IngestPipeline pipeline = new IngestPipeline(matchManager, 16, waitStrategy)) {
+                IntStream.range(0, 4).forEach(i -> pipeline.startMatch("Home" + i, "Away" + i).join());
+                ExecutorService executorService = Executors.newFixedThreadPool(4);
+                IntStream.range(0, 4).forEach(i -> executorService.submit(() -> {
+                    List<IngestHandle> handles = new ArrayList<>();
+                    for (int j = 0; j < 500; j++) {
+                        handles.add(pipeline.applyScore(ScoreEvent.goal("Home" + (j % 4), "Away" + (j % 4), TeamType.values()[i % 2])));
+                    }
+                    handles.forEach(IngestHandle::join);
+                }));
+                executorService.shutdown();
+                assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals("Home" + i + " 250 - Away" + i + " 250", scoreManager.getScore("Home" + i, "Away" + i), waitStrategy.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Given: Commands from one producer. When: They are applied. Then: They must be applied in order and report their outcome")
+    void commandsAreAppliedInOrder() {
+        try (IngestPipeline pipeline = new IngestPipeline(matchManager, 8, WaitStrategy.YIELD)) {
+            IngestHandle missingMatch = pipeline.applyScore(ScoreEvent.goal("TeamA", "TeamB", TeamType.HOME_TEAM));
+            IngestHandle start = pipeline.startMatch("TeamA", "TeamB");
+            IngestHandle goal = pipeline.applyScore(ScoreEvent.goal("TeamA", "TeamB", TeamType.HOME_TEAM));
+            IngestHandle duplicateStart = pipeline.startMatch("TeamA", "TeamB");
+            IngestHandle infraction = pipeline.applyScore(ScoreEvent.infraction("TeamA", "TeamB", TeamType.AWAY_TEAM));
+
+            assertEquals(ScoreEvent.Result.MATCH_NOT_FOUND, missingMatch.join());
+            assertNull(start.join());
+            assertEquals(ScoreEvent.Result.APPLIED, goal.join());
+            assertThrows(MatchAlreadyStartedException.class, duplicateStart::join);
+            assertEquals(ScoreEvent.Result.SCORE_AT_MINIMUM, infraction.join());
+            assertEquals("TeamA 1 - TeamB 0", scoreManager.getScore("TeamA", "TeamB"));
+        }
+    }
+
+    @Test
+    @DisplayName("Given: A closed pipeline. When: Publishing a command. Then: An IllegalStateException must be thrown")
+    void closedPipelineRejectsCommands() {
+        IngestPipeline pipeline = new IngestPipeline(matchManager, 8, WaitStrategy.PARK);
+        IngestHandle start = pipeline.startMatch("TeamA", "TeamB");
+        pipeline.close();
+
+        assertTrue(start.isDone());
+        assertThrows(IllegalStateException.class, () -> pipeline.finishMatch("TeamA", "TeamB"));
+        assertThrows(IllegalArgumentException.class, () -> new IngestPipeline(matchManager, 12, WaitStrategy.PARK));
+    }
+}
@@ -0,0 +1,190 @@
+package org.worldcup.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchEventListener;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.Score;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.repository.MatchRepository;
+import org.worldcup.repository.PackedKeyMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.PackedMatchKeyGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+import org.worldcup.util.TeamRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchJournalTest {
+
+    private Path file;
+    private MatchJournal journal;
+    private MatchRepository matchRepository;
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("scoreboard", ".journal");
+        Files.delete(file);
+        journal = new MatchJournal(file, 16, Duration.ofMillis(1));
+        matchRepository = new InMemoryMatchRepository();
+        matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        matchManager.addListener(journal);
+        scoreManager = new ScoreManager(matchManager);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    private MatchRepository replayAfterRestart() throws IOException {
+        journal.close();
+        journal = new MatchJournal(file);
+        MatchRepository replayedRepository = new InMemoryMatchRepository();
+        journal.replay(replayedRepository, new SimpleMatchKeyGenerator());
+        return replayedRepository;
+    }
+
+    @Test
+    @DisplayName("Given: Started, scored and finished matches. When: Replaying the journal. Then: The live matches must be rebuilt with their scores and order.")
+    void replayRebuildsTheBoard() throws IOException {
+        matchManager.startMatch("Mexico", "Canada");
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction("Spain", "Brazil", TeamType.HOME_TEAM);
+        matchManager.finishMatch("Germany", "France");
+        List<String> summary = new MatchSummaryGenerator(matchRepository).getSummary();
+
+        MatchRepository replayedRepository = replayAfterRestart();
+
+        assertEquals(summary, new MatchSummaryGenerator(replayedRepository).getSummary());
+        assertEquals(List.of("Spain 1 - Brazil 0", "Mexico 0 - Canada 1"), summary);
+        assertFalse(replayedRepository.isTeamInAnyMatch("Germany"));
+    }
+
+    @Test
+    @DisplayName("Given: Changes made after a sync. When: The sync completes. Then: The changes must be readable from the file.")
+    void syncMakesChangesDurable() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        scoreManager.updateScore("TeamA", "TeamB", TeamType.HOME_TEAM);
+
+        journal.sync().join();
+
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.readEntries(entries::add);
+        assertEquals(2, entries.size());
+        assertEquals(JournalEntry.Type.MATCH_STARTED, entries.get(0).type());
+        assertEquals(JournalEntry.Type.GOAL, entries.get(1).type());
+        assertEquals(TeamType.HOME_TEAM, entries.get(1).teamType());
+        assertEquals(1, Score.homeScore(entries.get(1).scoreState()));
+    }
+
+    @Test
+    @DisplayName("Given: A torn record at the end of the file. When: Reopening the journal. Then: The torn record must be dropped and appending must continue.")
+    void tornRecordIsTruncated() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        matchManager.removeListener(journal);
+        journal.close();
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        journal = new MatchJournal(file);
+        matchManager.addListener(journal);
+        matchManager.startMatch("TeamC", "TeamD");
+        journal.sync().join();
+
+        MatchRepository replayedRepository = new InMemoryMatchRepository();
+        journal.replay(replayedRepository, new SimpleMatchKeyGenerator());
+        assertEquals(List.of("TeamC 0 - TeamD 0", "TeamA 0 - TeamB 0"), new MatchSummaryGenerator(replayedRepository).getSummary());
+    }
+
+    @Test
+    @DisplayName("Given: A finish recorded before its start. When: Replaying the journal. Then: The match must not be live.")
+    void finishRecordedBeforeStartIsNotLive() throws IOException {
+        Match match = new Match("TeamA", "TeamB", new Score(), 1);
+        journal.matchFinished(match);
+        journal.matchStarted(match);
+
+        assertEquals(0, replayAfterRestart().countMatches());
+    }
+
+    @Test
+    @DisplayName("Given: A journal. When: Replaying it into a repository keyed by packed team IDs. Then: The matches must be found by their teams.")
+    void replayIntoPackedKeyRepository() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        scoreManager.updateScore("TeamA", "TeamB", TeamType.AWAY_TEAM);
+        journal.sync().join();
+
+        TeamRegistry teamRegistry = new TeamRegistry();
+        PackedKeyMatchRepository packedRepository = new PackedKeyMatchRepository(teamRegistry);
+        PackedMatchKeyGenerator keyGenerator = new PackedMatchKeyGenerator(teamRegistry);
+        journal.replay(packedRepository, keyGenerator);
+
+        MatchManager replayedManager = new MatchManager(packedRepository, keyGenerator);
+        assertEquals("TeamA 0 - TeamB 1", replayedManager.findMatch("TeamA", "TeamB").toString());
+    }
+
+    @Test
+    @DisplayName("Given: A closed journal. When: The board changes. Then: The change must be made, the other listeners called and the loss reported by sync.")
+    void changesAfterCloseAreReportedAsLost() throws IOException {
+        List<Match> startedMatches = new ArrayList<>();
+        matchManager.addListener(new MatchEventListener() {
+            @Override
+            public void matchStarted(Match match) {
+                startedMatches.add(match);
+            }
+        });
+        journal.close();
+
+        assertDoesNotThrow(() -> matchManager.startMatch("TeamA", "TeamB"));
+
+        assertEquals(1, startedMatches.size());
+        assertEquals(1, journal.getLostChangeCount());
+        CompletionException failure = assertThrows(CompletionException.class, () -> journal.sync().join());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Given: An interrupted flushing thread. When: Changes are made. Then: They must still become durable.")
+    void interruptDoesNotStopJournaling() throws IOException {
+        Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("match-journal-flusher"))
+                .forEach(Thread::interrupt);
+
+        matchManager.startMatch("TeamA", "TeamB");
+        journal.sync().join();
+
+        assertEquals(1, replayAfterRestart().countMatches());
+    }
+
+    @Test
+    @DisplayName("Given: A file that is not a journal. When: Opening it. Then: An IOException must be thrown.")
+    void rejectForeignFile() throws IOException {
+        Path foreignFile = Files.createTempFile("scoreboard", ".txt");
+        Files.writeString(foreignFile, "not a journal");
+        try {
+            assertThrows(IOException.class, () -> new MatchJournal(foreignFile));
+        } finally {
+            Files.delete(foreignFile);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.worldcup.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.model.Match;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.MappedMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the match manager tests against the memory-mapped repository, and checks that the board survives a restart.
+ */
+class MappedMatchManagerTest extends MatchManagerTest {
+
+    private Path file;
+    private MappedMatchRepository mappedMatchRepository;
+
+    @Override
+    @BeforeEach
+    void setUp() {
+        try {
+            file = Files.createTempFile("scoreboard", ".db");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mappedMatchRepository.close();
+        Files.deleteIfExists(file);
+    }
+
+    private void open() {
+        try {
+            mappedMatchRepository = new MappedMatchRepository(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        matchRepository = mappedMatchRepository;
+        matchKeyGenerator = new SimpleMatchKeyGenerator();
+        matchManager = new MatchManager(matchRepository, matchKeyGenerator);
+    }
+
+    private void restart() throws IOException {
+        mappedMatchRepository.close();
+        open();
+    }
+
+    @Test
+    @DisplayName("Given: Live matches with scores. When: The repository is reopened. Then: The board must be recovered with its scores and order.")
+    void recoverBoardAfterRestart() throws IOException {
+        matchManager.startMatch("Mexico", "Canada");
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        List<String> summaryBeforeRestart = new MatchSummaryGenerator(matchRepository).getSummary();
+
+        restart();
+
+        assertEquals(3, matchRepository.countMatches());
+        assertEquals(summaryBeforeRestart, new MatchSummaryGenerator(matchRepository).getSummary());
+        assertTrue(matchRepository.isTeamInAnyMatch("Brazil"));
+        assertEquals("Spain 1 - Brazil 0", new ScoreManager(matchManager).getScore("Spain", "Brazil"));
+    }
+
+    @Test
+    @DisplayName("Given: A finished match. When: The repository is reopened. Then: Only the live matches must be recovered.")
+    void finishedMatchesAreNotRecovered() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        matchManager.startMatch("TeamC", "TeamD");
+        matchManager.finishMatch("TeamA", "TeamB");
+
+        restart();
+
+        assertEquals(1, matchRepository.countMatches());
+        assertFalse(matchRepository.isTeamInAnyMatch("TeamA"));
+        assertDoesNotThrow(() -> matchManager.findMatch("TeamC", "TeamD"));
+    }
+
+    @Test
+    @DisplayName("Given: A recovered board. When: A new match starts and scores are tied. Then: The new match must count as the most recent one.")
+    void matchesStartedAfterRestartAreMostRecent() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        matchManager.startMatch("TeamC", "TeamD");
+
+        restart();
+        matchManager.startMatch("TeamE", "TeamF");
+
+        assertEquals(List.of("TeamE 0 - TeamF 0", "TeamC 0 - TeamD 0", "TeamA 0 - TeamB 0"), new MatchSummaryGenerator(matchRepository).getSummary());
+    }
+
+    @Test
+    @DisplayName("Given: More matches than one chunk of the file holds. When: Reopening. Then: All matches must be recovered.")
+    void recoverMatchesAcrossChunks() throws IOException {
+        for (int i = 0; i < 3000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        new ScoreManager(matchManager).updateScore("Home2999", "Away2999", TeamType.AWAY_TEAM);
+
+        restart();
+
+        assertEquals(3000, matchRepository.countMatches());
+        assertEquals("Home2999 0 - Away2999 1", new MatchSummaryGenerator(matchRepository).getSummary().get(0));
+    }
+
+    @Test
+    @DisplayName("Given: Matches started and finished over and over. When: Checking the file. Then: It must only hold room for the live matches.")
+    void finishedSlotsAreReused() throws IOException {
+        matchManager.startMatch("Live", "Match");
+        long sizeWithOneMatch = Files.size(file);
+        for (int i = 0; i < 5000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            matchManager.finishMatch("Home" + i, "Away" + i);
+        }
+
+        assertEquals(sizeWithOneMatch, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Given: A finished match whose slot was reused. When: A late goal is scored for it. Then: The new match must keep its score.")
+    void lateGoalsForFinishedMatchesDoNotLeak() throws IOException {
+        matchManager.startMatch("TeamA", "TeamB");
+        Match finishedMatch = matchManager.findMatch("TeamA", "TeamB");
+        finishedMatch.score().incrementHomeScore();
+        matchManager.finishMatch("TeamA", "TeamB");
+        matchManager.startMatch("TeamC", "TeamD");
+
+        finishedMatch.score().incrementAwayScore();
+
+        assertEquals("TeamA 1 - TeamB 1", finishedMatch.toString());
+        assertEquals("TeamC 0 - TeamD 0", new ScoreManager(matchManager).getScore("TeamC", "TeamD"));
+        restart();
+        assertEquals(List.of("TeamC 0 - TeamD 0"), new MatchSummaryGenerator(matchRepository).getSummary());
+    }
+
+    @Test
+    @DisplayName("Given: A listener. When: A match is started, scored and finished. Then: Every change must be reported for the stored match.")
+    void listenersSeeTheStoredMatch() {
+        List<Match> startedMatches = new ArrayList<>();
+        List<Match> changedMatches = new ArrayList<>();
+        List<Match> finishedMatches = new ArrayList<>();
+        matchManager.addListener(new MatchEventListener() {
+            @Override
+            public void matchStarted(Match match) {
+                startedMatches.add(match);
+            }
+
+            @Override
+            public void scoreChanged(Match match, TeamType teamType, int delta) {
+                changedMatches.add(match);
+            }
+
+            @Override
+            public void matchFinished(Match match) {
+                finishedMatches.add(match);
+            }
+        });
+
+        matchManager.startMatch("Mexico", "Canada");
+        new ScoreManager(matchManager).updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        Match startedMatch = startedMatches.get(0);
+        assertSame(matchManager.findMatch("Mexico", "Canada"), startedMatch);
+        assertEquals("Mexico 1 - Canada 0", startedMatch.toString());
+        matchManager.finishMatch("Mexico", "Canada");
+
+        assertSame(startedMatch, changedMatches.get(0));
+        assertSame(startedMatch, finishedMatches.get(0));
+    }
+}
@@ -0,0 +1,39 @@
+package org.worldcup.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.worldcup.repository.MappedMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the score manager tests against the memory-mapped repository.
+ */
+class MappedScoreManagerTest extends ScoreManagerTest {
+
+    private Path file;
+    private MappedMatchRepository mappedMatchRepository;
+
+    @Override
+    @BeforeEach
+    void setUp() {
+        try {
+            file = Files.createTempFile("scoreboard", ".db");
+            mappedMatchRepository = new MappedMatchRepository(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        matchRepository = mappedMatchRepository;
+        matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mappedMatchRepository.close();
+        Files.deleteIfExists(file);
+    }
+}
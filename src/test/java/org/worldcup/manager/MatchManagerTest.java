@@ -20,9 +20,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class MatchManagerTest {
 
-    private MatchRepository matchRepository;
-    private MatchKeyGenerator matchKeyGenerator;
-    private MatchManager matchManager;
+    MatchRepository matchRepository;
+    MatchKeyGenerator matchKeyGenerator;
+    MatchManager matchManager;
 
     @BeforeEach
     void setUp() {
@@ -232,6 +232,22 @@ class MatchManagerTest {
             assertThrows(ExistingMatchConflictException.class, () -> matchManager.startMatch(awayTeam, homeTeam));
         }
 
+        @Test
+        @DisplayName("Given: A finished match. When: Starting new matches with its teams. Then: The teams must be free to play again.")
+        void allowMatchStartWithTeamsOfFinishedMatch() {
+            String homeTeam = "TeamA";
+            String awayTeam = "TeamB";
+            matchManager.startMatch(homeTeam, awayTeam);
+            matchManager.finishMatch(homeTeam, awayTeam);
+
+            assertFalse(matchRepository.isTeamInAnyMatch(homeTeam));
+            assertFalse(matchRepository.isTeamInAnyMatch(awayTeam));
+            assertDoesNotThrow(() -> matchManager.startMatch(homeTeam, "TeamC"));
+            assertDoesNotThrow(() -> matchManager.startMatch("TeamD", awayTeam));
+            assertTrue(matchRepository.isTeamInAnyMatch(homeTeam));
+            assertTrue(matchRepository.isTeamInAnyMatch(awayTeam));
+        }
+
     }
 
     @Nested
@@ -0,0 +1,71 @@
+package org.worldcup.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.exceptions.TeamAlreadyInMatchException;
+import org.worldcup.repository.PackedKeyMatchRepository;
+import org.worldcup.util.PackedMatchKeyGenerator;
+import org.worldcup.util.TeamRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the match manager tests against the packed team ID keys.
+ */
+class PackedKeyMatchManagerTest extends MatchManagerTest {
+
+    private TeamRegistry teamRegistry;
+
+    @Override
+    @BeforeEach
+    void setUp() {
+        teamRegistry = new TeamRegistry();
+        PackedKeyMatchRepository packedKeyMatchRepository = new PackedKeyMatchRepository(teamRegistry);
+        PackedMatchKeyGenerator packedMatchKeyGenerator = new PackedMatchKeyGenerator(teamRegistry);
+        matchRepository = packedKeyMatchRepository;
+        matchKeyGenerator = packedMatchKeyGenerator;
+        matchManager = new MatchManager(packedKeyMatchRepository, packedMatchKeyGenerator);
+    }
+
+    @Test
+    @DisplayName("Given: A team registered in one case. When: Looking it up in another case. Then: The same ID must be returned.")
+    void teamsAreInternedIgnoringCase() {
+        int id = teamRegistry.register("Brazil");
+
+        assertEquals(id, teamRegistry.findId("BRAZIL"));
+        assertEquals(id, teamRegistry.register("brazil"));
+        assertEquals("Brazil", teamRegistry.nameOf(id));
+        assertEquals(TeamRegistry.UNKNOWN_TEAM, teamRegistry.findId("Argentina"));
+    }
+
+    @Test
+    @DisplayName("Given: A team in a match. When: Starting another match with the team in a different case. Then: TeamAlreadyInMatchException is thrown.")
+    void preventMatchStartWithTeamInDifferentCase() {
+        matchManager.startMatch("TeamA", "TeamB");
+
+        assertThrows(TeamAlreadyInMatchException.class, () -> matchManager.startMatch("TEAMA", "TeamC"));
+        assertTrue(matchRepository.isTeamInAnyMatch("teama"));
+    }
+
+    @Test
+    @DisplayName("Given: Many matches started and finished. When: The map is rehashed. Then: Every live match must still be found.")
+    void matchesSurviveRehashing() {
+        for (int i = 0; i < 5000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            matchManager.finishMatch("Home" + i, "Away" + i);
+        }
+
+        assertEquals(2500, matchRepository.countMatches());
+        assertEquals(2500, matchRepository.getAllMatches().size());
+        for (int i = 0; i < 5000; i += 2) {
+            String homeTeam = "Home" + i;
+            String awayTeam = "Away" + i;
+            assertThrows(MatchNotFoundException.class, () -> matchManager.findMatch(homeTeam, awayTeam));
+            assertEquals("Home" + (i + 1), matchManager.findMatch("home" + (i + 1), "AWAY" + (i + 1)).homeTeam());
+        }
+    }
+}
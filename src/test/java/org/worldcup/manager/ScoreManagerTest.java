@@ -5,12 +5,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.model.Match;
+import org.worldcup.model.MatchLine;
+import org.worldcup.model.ScoreEvent;
 import org.worldcup.model.TeamType;
 import org.worldcup.repository.InMemoryMatchRepository;
 import org.worldcup.repository.MatchRepository;
 import org.worldcup.util.MatchKeyGenerator;
+import org.worldcup.util.MatchSummaryGenerator;
 import org.worldcup.util.SimpleMatchKeyGenerator;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -19,9 +27,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class ScoreManagerTest {
 
-    private MatchRepository matchRepository;
-    private MatchManager matchManager;
-    private ScoreManager scoreManager;
+    MatchRepository matchRepository;
+    MatchManager matchManager;
+    ScoreManager scoreManager;
 
     @BeforeEach
     void setUp() {
@@ -198,4 +206,85 @@ class ScoreManagerTest {
         }
 
     }
+
+    @Nested
+    @DisplayName("Rendered Line Tests")
+    class RenderedLineTests {
+        @Test
+        @DisplayName("Given: An ongoing match. When: Reading its line twice. Then: The cached line should be reused until the score changes")
+        void lineIsCachedUntilScoreChanges() {
+            startMatch("TeamA", "TeamB");
+            Match match = matchManager.findMatch("TeamA", "TeamB");
+
+            MatchLine line = match.line();
+            assertSame(line, match.line());
+
+            scoreManager.updateScore("TeamA", "TeamB", TeamType.AWAY_TEAM);
+            MatchLine changedLine = match.line();
+            assertNotSame(line, changedLine);
+            assertEquals("TeamA 0 - TeamB 1", changedLine.text());
+            assertEquals("TeamA 0 - TeamB 1", scoreManager.getScore("TeamA", "TeamB"));
+        }
+
+        @Test
+        @DisplayName("Given: Team names outside ASCII. When: Reading the line. Then: The UTF-8 bytes should encode the same text as the format used so far")
+        void lineBytesMatchText() {
+            String homeTeam = "C\u00f4te d'Ivoire";
+            String awayTeam = "T\u00fcrkiye";
+            startMatch(homeTeam, awayTeam);
+            scoreManager.updateScore(homeTeam, awayTeam, TeamType.HOME_TEAM);
+
+            MatchLine line = matchManager.findMatch(homeTeam, awayTeam).line();
+            assertEquals(String.format("%s %d - %s %d", homeTeam, 1, awayTeam, 0), line.text());
+            assertArrayEquals(line.text().getBytes(StandardCharsets.UTF_8), line.utf8());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+        @Test
+        @DisplayName("Given: Events for two matches, interleaved. When: Applying them as a batch. Then: Each match should end with all its events applied in order")
+        void applyBatchAcrossMatches() {
+            startMatch("TeamA", "TeamB");
+            startMatch("TeamC", "TeamD");
+            List<Integer> notifiedChanges = new ArrayList<>();
+            matchManager.addListener(new MatchEventListener() {
+                @Override
+                public void scoreChanged(Match match, TeamType teamType, int delta) {
+                    notifiedChanges.add(delta);
+                }
+            });
+
+            List<ScoreEvent.Result> results = scoreManager.applyBatch(List.of(
+                    ScoreEvent.goal("TeamA", "TeamB", TeamType.HOME_TEAM),
+                    ScoreEvent.goal("TeamC", "TeamD", TeamType.AWAY_TEAM),
+                    ScoreEvent.goal("TeamA", "TeamB", TeamType.HOME_TEAM),
+                    ScoreEvent.infraction("TeamA", "TeamB", TeamType.HOME_TEAM),
+                    ScoreEvent.goal("TeamC", "TeamD", TeamType.AWAY_TEAM)));
+
+            assertEquals(Collections.nCopies(5, ScoreEvent.Result.APPLIED), results);
+            assertEquals("TeamA 1 - TeamB 0", scoreManager.getScore("TeamA", "TeamB"));
+            assertEquals("TeamC 0 - TeamD 2", scoreManager.getScore("TeamC", "TeamD"));
+            assertEquals(List.of(1, 1, -1, 1, 1), notifiedChanges);
+            assertEquals(List.of("TeamC 0 - TeamD 2", "TeamA 1 - TeamB 0"), new MatchSummaryGenerator(matchRepository).getSummary());
+        }
+
+        @Test
+        @DisplayName("Given: A batch with bad events. When: Applying it. Then: The bad events should be reported without stopping the others")
+        void applyBatchReportsBadEvents() {
+            startMatch("TeamA", "TeamB");
+
+            List<ScoreEvent.Result> results = scoreManager.applyBatch(List.of(
+                    ScoreEvent.infraction("TeamA", "TeamB", TeamType.AWAY_TEAM),
+                    ScoreEvent.goal("TeamX", "TeamY", TeamType.HOME_TEAM),
+                    ScoreEvent.goal("TeamA", "TeamA", TeamType.HOME_TEAM),
+                    ScoreEvent.goal("TeamA", "TeamB", null),
+                    ScoreEvent.goal("TeamA", "TeamB", TeamType.AWAY_TEAM)));
+
+            assertEquals(List.of(ScoreEvent.Result.SCORE_AT_MINIMUM, ScoreEvent.Result.MATCH_NOT_FOUND,
+                    ScoreEvent.Result.INVALID, ScoreEvent.Result.INVALID, ScoreEvent.Result.APPLIED), results);
+            assertEquals("TeamA 0 - TeamB 1", scoreManager.getScore("TeamA", "TeamB"));
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package org.worldcup.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreboardEventsTest {
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    @DisplayName("Given: A recording with no thresholds. When: Matches are played. Then: An event must be recorded per operation")
+    void operationsAreRecorded() throws Exception {
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator matchSummaryGenerator = new MatchSummaryGenerator(matchRepository);
+        Path file = Files.createTempFile("scoreboard", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("MatchStart", "MatchFinish", "ScoreUpdate", "InfractionAdjustment", "Summary", "RepositoryContention")) {
+                recording.enable("org.worldcup." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            matchManager.startMatch("Mexico", "Canada");
+            scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+            scoreManager.adjustScoreForInfraction("Mexico", "Canada", TeamType.AWAY_TEAM);
+            assertThrows(MatchNotFoundException.class, () -> scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM));
+            matchSummaryGenerator.getSummary();
+            matchManager.finishMatch("Mexico", "Canada");
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent start = eventsOf(events, "org.worldcup.MatchStart").get(0);
+            assertEquals("Mexico", start.getString("homeTeam"));
+            assertEquals("Canada", start.getString("awayTeam"));
+            assertNull(start.getString("rejection"));
+
+            List<RecordedEvent> updates = eventsOf(events, "org.worldcup.ScoreUpdate");
+            assertEquals(2, updates.size());
+            assertEquals("AWAY_TEAM", updates.get(0).getString("team"));
+            assertEquals("MatchNotFoundException", updates.get(1).getString("rejection"));
+
+            assertEquals(1, eventsOf(events, "org.worldcup.InfractionAdjustment").size());
+            assertEquals(1, eventsOf(events, "org.worldcup.MatchFinish").size());
+            RecordedEvent summary = eventsOf(events, "org.worldcup.Summary").get(0);
+            assertEquals(1, summary.getInt("boardSize"));
+            assertEquals(List.of("add", "reorder", "reorder", "remove"),
+                    eventsOf(events, "org.worldcup.RepositoryContention").stream().map(event -> event.getString("operation")).toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Given: A recording with a long threshold. When: Fast operations run. Then: No event must be recorded")
+    void fastOperationsAreNotRecorded() throws Exception {
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        MatchSummaryGenerator matchSummaryGenerator = new MatchSummaryGenerator(matchRepository);
+        Path file = Files.createTempFile("scoreboard", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.worldcup.MatchStart").withThreshold(Duration.ofMinutes(1));
+            recording.enable("org.worldcup.Summary").withThreshold(Duration.ofMinutes(1));
+            recording.start();
+            matchManager.startMatch("Mexico", "Canada");
+            matchSummaryGenerator.getSummary();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertTrue(eventsOf(events, "org.worldcup.MatchStart").isEmpty());
+            assertTrue(eventsOf(events, "org.worldcup.Summary").isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.worldcup.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.exceptions.MatchNotFoundException;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.ScoreEvent;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreboardMetricsTest {
+
+    private InMemoryMatchRepository matchRepository;
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private MatchSummaryGenerator matchSummaryGenerator;
+    private ScoreboardMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        matchRepository = new InMemoryMatchRepository();
+        matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        matchSummaryGenerator = new MatchSummaryGenerator(matchRepository);
+        metrics = new ScoreboardMetrics(true);
+        matchManager.setMetrics(metrics);
+        matchSummaryGenerator.setMetrics(metrics);
+    }
+
+    private long count(ScoreboardMetrics.Operation operation) {
+        return metrics.snapshot().latencies().get(operation).count();
+    }
+
+    @Test
+    @DisplayName("Given: Latencies of every magnitude. When: They are bucketed. Then: Each must fall into a bucket of at most a quarter of its size")
+    void bucketBounds() {
+        for (long nanos : new long[]{0, 1, 3, 4, 7, 8, 9, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            assertTrue(bucket < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= nanos, "Upper bound below " + nanos);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < nanos, "Previous bucket holds " + nanos);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) - nanos <= nanos / 4, "Bucket too wide for " + nanos);
+        }
+    }
+
+    @Test
+    @DisplayName("Given: A histogram of 1 to 1000 ns. When: Percentiles are read. Then: They must be within the bucket width of the exact values")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.count());
+        assertEquals(500.5, snapshot.meanNanos());
+        assertEquals(1000, snapshot.maxNanos());
+        assertTrue(snapshot.percentileNanos(50) >= 500 && snapshot.percentileNanos(50) <= 625);
+        assertTrue(snapshot.percentileNanos(99) >= 990);
+        assertEquals(1000, snapshot.percentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.percentileNanos(101));
+    }
+
+    @Test
+    @DisplayName("Given: Enabled metrics. When: Operations succeed and fail. Then: Their latencies and rejections must be recorded")
+    void operationsAreRecorded() {
+        matchManager.startMatch("Mexico", "Canada");
+        scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        scoreManager.adjustScoreForInfraction("Mexico", "Canada", TeamType.HOME_TEAM);
+        assertThrows(IllegalStateException.class, () -> scoreManager.adjustScoreForInfraction("Mexico", "Canada", TeamType.HOME_TEAM));
+        assertThrows(MatchNotFoundException.class, () -> scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM));
+        matchSummaryGenerator.getSummary();
+
+        assertEquals(1, count(ScoreboardMetrics.Operation.START));
+        assertEquals(2, count(ScoreboardMetrics.Operation.UPDATE));
+        assertEquals(2, count(ScoreboardMetrics.Operation.ADJUST));
+        assertEquals(2, count(ScoreboardMetrics.Operation.REORDER));
+        assertEquals(0, count(ScoreboardMetrics.Operation.FIND));
+        assertEquals(1, count(ScoreboardMetrics.Operation.SUMMARY));
+        assertEquals(1, metrics.getBoardSize());
+
+        matchManager.finishMatch("Mexico", "Canada");
+        ScoreboardMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.latencies().get(ScoreboardMetrics.Operation.FINISH).count());
+        assertEquals(0, snapshot.boardSize());
+        assertEquals(Long.valueOf(1), snapshot.rejections().get("IllegalStateException"));
+        assertEquals(Long.valueOf(1), snapshot.rejections().get("MatchNotFoundException"));
+    }
+
+    @Test
+    @DisplayName("Given: Enabled metrics. When: A batch of feed events is applied. Then: The batch, its reorders and its unknown matches must be recorded")
+    void batchesAreRecorded() {
+        matchManager.startMatch("Mexico", "Canada");
+        scoreManager.applyBatch(List.of(
+                ScoreEvent.goal("Mexico", "Canada", TeamType.HOME_TEAM),
+                ScoreEvent.goal("Mexico", "Canada", TeamType.AWAY_TEAM),
+                ScoreEvent.goal("Spain", "Brazil", TeamType.HOME_TEAM)));
+
+        assertEquals(1, count(ScoreboardMetrics.Operation.BATCH));
+        assertEquals(1, count(ScoreboardMetrics.Operation.REORDER));
+        assertEquals(0, count(ScoreboardMetrics.Operation.UPDATE));
+        assertEquals(Long.valueOf(1), metrics.snapshot().rejections().get("MatchNotFoundException"));
+    }
+
+    @Test
+    @DisplayName("Given: Disabled metrics. When: Operations run. Then: Nothing must be recorded until the metrics are enabled")
+    void disabledMetricsRecordNothing() {
+        metrics.setEnabled(false);
+        matchManager.startMatch("Mexico", "Canada");
+        assertThrows(MatchNotFoundException.class, () -> matchManager.findMatch("Spain", "Brazil"));
+        assertEquals(0, count(ScoreboardMetrics.Operation.START));
+        assertTrue(metrics.snapshot().rejections().isEmpty());
+
+        metrics.setEnabled(true);
+        matchManager.findMatch("Mexico", "Canada");
+        assertEquals(1, count(ScoreboardMetrics.Operation.FIND));
+        assertThrows(UnsupportedOperationException.class, () -> ScoreboardMetrics.NONE.setEnabled(true));
+    }
+
+    @Test
+    @DisplayName("Given: Registered metrics. When: They are read through the platform MBean server. Then: They must show the operations")
+    void metricsAreExposedOverJmx() throws Exception {
+        ObjectName name = metrics.register("metrics-test");
+        try {
+            matchManager.startMatch("Mexico", "Canada");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            assertEquals(1, server.getAttribute(name, "BoardSize"));
+            assertEquals(true, server.getAttribute(name, "Enabled"));
+            TabularData counts = (TabularData) server.getAttribute(name, "OperationCounts");
+            CompositeData start = counts.get(new Object[]{"START"});
+            assertEquals(1L, start.get("value"));
+            assertThrows(IllegalStateException.class, () -> metrics.register("metrics-test"));
+        } finally {
+            metrics.unregister("metrics-test");
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
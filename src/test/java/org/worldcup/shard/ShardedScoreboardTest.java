@@ -0,0 +1,160 @@
+package org.worldcup.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.exceptions.ExistingMatchConflictException;
+import org.worldcup.exceptions.MatchAlreadyStartedException;
+import org.worldcup.exceptions.TeamAlreadyInMatchException;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.MatchSummaryGenerator;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedScoreboardTest {
+
+    @Test
+    @DisplayName("Given: Matches in several competitions. When: The summary is read. Then: The shards must be merged in summary order")
+    void summaryMergesCompetitions() {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byCompetition("World Cup", "Friendlies");
+        ShardedScoreboard.Shard worldCup = scoreboard.shard("World Cup");
+        ShardedScoreboard.Shard friendlies = scoreboard.shard("Friendlies");
+        worldCup.matchManager().startMatch("Mexico", "Canada");
+        friendlies.matchManager().startMatch("Spain", "Brazil");
+        worldCup.matchManager().startMatch("Germany", "France");
+        friendlies.matchManager().startMatch("Uruguay", "Italy");
+        friendlies.scoreManager().updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        worldCup.scoreManager().updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        worldCup.scoreManager().updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+
+        assertEquals(List.of("Mexico 0 - Canada 2", "Spain 1 - Brazil 0", "Uruguay 0 - Italy 0", "Germany 0 - France 0"),
+                scoreboard.getSummary());
+        assertEquals(List.of("Mexico 0 - Canada 2", "Spain 1 - Brazil 0"), scoreboard.getTopSummary(2));
+        assertEquals(List.of("Spain 1 - Brazil 0", "Uruguay 0 - Italy 0"), friendlies.summaryGenerator().getSummary());
+        assertThrows(IllegalArgumentException.class, () -> scoreboard.shard("Qualifiers"));
+    }
+
+    @Test
+    @DisplayName("Given: A team playing in one competition. When: It starts a match in another competition. Then: Only its own shard must reject it")
+    void teamsAreCheckedPerShard() {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byCompetition("World Cup", "Friendlies");
+        scoreboard.shard("World Cup").matchManager().startMatch("Mexico", "Canada");
+
+        assertThrows(TeamAlreadyInMatchException.class, () -> scoreboard.shard("World Cup").matchManager().startMatch("Mexico", "Spain"));
+        scoreboard.shard("Friendlies").matchManager().startMatch("Mexico", "Spain");
+        assertEquals(2, scoreboard.getSummary().size());
+    }
+
+    @Test
+    @DisplayName("Given: A match on hash shards. When: Its reversal, another spelling or a match of a busy team is started. Then: It must be rejected whatever the shard")
+    void teamsAreCheckedAcrossHashShards() {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byHash(8);
+        ShardedScoreboard.Shard shard = scoreboard.shardOf("Mexico", "Canada");
+        shard.matchManager().startMatch("Mexico", "Canada");
+
+        assertSame(shard, scoreboard.shardOf("Canada", "Mexico"));
+        assertSame(shard, scoreboard.shardOf("MEXICO", "canada"));
+        assertThrows(ExistingMatchConflictException.class, () -> shard.matchManager().startMatch("Canada", "Mexico"));
+        assertThrows(MatchAlreadyStartedException.class, () -> shard.matchManager().startMatch("MEXICO", "canada"));
+
+        String opponent = IntStream.range(0, 100).mapToObj(i -> "Team " + i)
+                .filter(team -> scoreboard.shardOf("Mexico", team) != shard)
+                .findFirst()
+                .orElseThrow();
+        ShardedScoreboard.Shard otherShard = scoreboard.shardOf("Mexico", opponent);
+        assertThrows(TeamAlreadyInMatchException.class, () -> otherShard.matchManager().startMatch("Mexico", opponent));
+        assertThrows(TeamAlreadyInMatchException.class, () -> otherShard.matchManager().startMatch(opponent, "Mexico"));
+
+        shard.matchManager().finishMatch("Mexico", "Canada");
+        otherShard.matchManager().startMatch("Mexico", opponent);
+        assertEquals(List.of("Mexico 0 - " + opponent + " 0"), scoreboard.getSummary());
+    }
+
+    @Test
+    @DisplayName("Given: Hash shards. When: Matches are played through the scoreboard. Then: They must be routed to their shard and conflict across shards")
+    void scoreboardRoutesMatches() {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byHash(8);
+        scoreboard.startMatch("Mexico", "Canada");
+        scoreboard.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        scoreboard.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+
+        assertEquals(List.of("Mexico 0 - Canada 2"), scoreboard.shardOf("Mexico", "Canada").summaryGenerator().getSummary());
+        // The opponent sorts before Canada, so its match is routed by the opponent's name, to another shard
+        String opponent = IntStream.range(0, 100).mapToObj(i -> "Angola " + i)
+                .filter(team -> scoreboard.shardOf(team, "Canada") != scoreboard.shardOf("Mexico", "Canada"))
+                .findFirst()
+                .orElseThrow();
+        assertThrows(TeamAlreadyInMatchException.class, () -> scoreboard.startMatch(opponent, "Canada"));
+
+        scoreboard.finishMatch("Mexico", "Canada");
+        scoreboard.startMatch(opponent, "Canada");
+        assertEquals(List.of(opponent + " 0 - Canada 0"), scoreboard.getSummary());
+        assertThrows(IllegalStateException.class, () -> ShardedScoreboard.byCompetition("World Cup").startMatch("Mexico", "Canada"));
+    }
+
+    @Test
+    @DisplayName("Given: Hash shards and a single board fed the same matches. When: Both summaries are read. Then: They must be equal")
+    void hashShardsMatchSingleBoard() throws Exception {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byHash(8);
+        InMemoryMatchRepository matchRepository = new InMemoryMatchRepository();
+        MatchManager matchManager = new MatchManager(matchRepository, new SimpleMatchKeyGenerator());
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String homeTeam = "Home " + i;
+            String awayTeam = "Away " + i;
+            ShardedScoreboard.Shard shard = scoreboard.shardOf(homeTeam, awayTeam);
+            shard.matchManager().startMatch(homeTeam, awayTeam);
+            matchManager.startMatch(homeTeam, awayTeam);
+            for (int goals = random.nextInt(4); goals > 0; goals--) {
+                shard.scoreManager().updateScore(homeTeam, awayTeam, TeamType.HOME_TEAM);
+                scoreManager.updateScore(homeTeam, awayTeam, TeamType.HOME_TEAM);
+            }
+        }
+
+        assertEquals(new MatchSummaryGenerator(matchRepository).getSummary(), scoreboard.getSummary());
+        assertEquals(500, scoreboard.shards().stream().mapToInt(shard -> shard.matchRepository().countMatches()).sum());
+    }
+
+    @Test
+    @DisplayName("Given: Writers on different shards. When: They play concurrently. Then: Every goal must be counted")
+    void concurrentWritersOnShards() throws Exception {
+        ShardedScoreboard scoreboard = ShardedScoreboard.byHash(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                int writerIndex = writer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String homeTeam = "Home " + writerIndex + "-" + i;
+                        String awayTeam = "Away " + writerIndex + "-" + i;
+                        ShardedScoreboard.Shard shard = scoreboard.shardOf(homeTeam, awayTeam);
+                        shard.matchManager().startMatch(homeTeam, awayTeam);
+                        shard.scoreManager().updateScore(homeTeam, awayTeam, TeamType.AWAY_TEAM);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> summary = scoreboard.getSummary();
+        assertEquals(200, summary.size());
+        assertTrue(summary.stream().allMatch(line -> line.endsWith(" 1")));
+    }
+}
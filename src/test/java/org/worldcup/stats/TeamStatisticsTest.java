@@ -0,0 +1,114 @@
+package org.worldcup.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamStatisticsTest {
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private TeamStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        statistics = new TeamStatistics();
+        matchManager.addListener(statistics);
+    }
+
+    private static List<String> teams(List<TeamStatistics.TeamStats> stats) {
+        return stats.stream().map(TeamStatistics.TeamStats::team).toList();
+    }
+
+    @Test
+    @DisplayName("Given: Matches started, scored, adjusted and finished. When: A team's statistics are read. Then: They must count every change")
+    void statisticsFollowTheBoard() {
+        matchManager.startMatch("Spain", "Brazil");
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.AWAY_TEAM);
+        scoreManager.adjustScoreForInfraction("Spain", "Brazil", TeamType.HOME_TEAM);
+        matchManager.finishMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "Spain");
+        scoreManager.updateScore("Germany", "Spain", TeamType.HOME_TEAM);
+
+        assertEquals(new TeamStatistics.TeamStats("Spain", 2, 1, 1, 2), statistics.teamStats("Spain"));
+        assertEquals(-1, statistics.teamStats("Spain").goalDifference());
+        assertEquals(new TeamStatistics.TeamStats("Brazil", 1, 0, 1, 1), statistics.teamStats("Brazil"));
+        assertEquals(new TeamStatistics.TeamStats("Uruguay", 0, 0, 0, 0), statistics.teamStats("Uruguay"));
+    }
+
+    @Test
+    @DisplayName("Given: Teams with different goal counts. When: The top scorers are read. Then: They must be ranked by goals, then by name")
+    void topScorers() {
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        for (int i = 0; i < 3; i++) {
+            scoreManager.updateScore("Germany", "France", TeamType.AWAY_TEAM);
+        }
+        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.AWAY_TEAM);
+        scoreManager.updateScore("Spain", "Brazil", TeamType.AWAY_TEAM);
+        scoreManager.adjustScoreForInfraction("Spain", "Brazil", TeamType.AWAY_TEAM);
+
+        assertEquals(List.of("France", "Brazil", "Spain"), teams(statistics.topScorers(3)));
+        assertEquals(List.of("France", "Brazil", "Spain", "Germany"), teams(statistics.topScorers(10)));
+        assertTrue(statistics.topScorers(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> statistics.topScorers(-1));
+    }
+
+    @Test
+    @DisplayName("Given: Concurrent goals and infraction adjustments for the same team. When: They settle. Then: The ranking must hold the team once with its final goals")
+    void concurrentGoalsKeepOneRankEntry() throws Exception {
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        int threads = 4;
+        int goals = 2_000;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                boolean adjusting = thread % 2 == 1;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < goals; i++) {
+                        scoreManager.updateScore("Spain", "Brazil", TeamType.HOME_TEAM);
+                        if (adjusting) {
+                            scoreManager.adjustScoreForInfraction("Spain", "Brazil", TeamType.HOME_TEAM);
+                        }
+                        scoreManager.updateScore("Germany", "France", TeamType.HOME_TEAM);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<TeamStatistics.TeamStats> topScorers = statistics.topScorers(10);
+        assertEquals(List.of("Germany", "Spain", "Brazil", "France"), teams(topScorers));
+        assertEquals(threads * goals, topScorers.get(0).goalsFor());
+        assertEquals(threads * goals / 2, topScorers.get(1).goalsFor());
+        assertEquals(threads * goals / 2, statistics.teamStats("Brazil").goalsAgainst());
+    }
+}
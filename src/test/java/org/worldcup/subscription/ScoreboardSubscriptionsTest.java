@@ -0,0 +1,224 @@
+package org.worldcup.subscription;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.worldcup.manager.MatchManager;
+import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.Match;
+import org.worldcup.model.TeamType;
+import org.worldcup.repository.InMemoryMatchRepository;
+import org.worldcup.util.SimpleMatchKeyGenerator;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreboardSubscriptionsTest {
+
+    private MatchManager matchManager;
+    private ScoreManager scoreManager;
+    private ScoreboardSubscriptions subscriptions;
+
+    @BeforeEach
+    void setUp() {
+        matchManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        scoreManager = new ScoreManager(matchManager);
+        subscriptions = new ScoreboardSubscriptions(matchManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.close();
+    }
+
+    private static MatchChange next(BlockingQueue<MatchChange> changes) throws InterruptedException {
+        MatchChange change = changes.poll(10, TimeUnit.SECONDS);
+        assertNotNull(change, "No change was delivered");
+        return change;
+    }
+
+    @Test
+    @DisplayName("Given: A subscribed listener. When: A match is started, scored and finished. Then: The listener must receive the changes")
+    void changesAreDelivered() throws InterruptedException {
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(changes::add, 16);
+
+        matchManager.startMatch("Mexico", "Canada");
+        MatchChange started = next(changes);
+        assertEquals(MatchChange.Type.STARTED, started.type());
+        assertEquals("Mexico", started.match().homeTeam());
+
+        scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        MatchChange scored = next(changes);
+        assertEquals(MatchChange.Type.SCORE_CHANGED, scored.type());
+        assertEquals(1, scored.homeScore());
+        assertEquals(0, scored.awayScore());
+
+        matchManager.finishMatch("Mexico", "Canada");
+        MatchChange finished = next(changes);
+        assertEquals(MatchChange.Type.FINISHED, finished.type());
+        assertEquals(1, finished.homeScore());
+    }
+
+    @Test
+    @DisplayName("Given: A finished match. When: A score change of it that raced with the finish arrives. Then: It must be dropped, and a new match of the teams must be delivered")
+    void lateChangesOfFinishedMatchesAreDropped() throws InterruptedException {
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(changes::add, 16);
+
+        matchManager.startMatch("Mexico", "Canada");
+        Match finishedMatch = next(changes).match();
+        matchManager.finishMatch("Mexico", "Canada");
+        assertEquals(MatchChange.Type.FINISHED, next(changes).type());
+        finishedMatch.score().incrementHomeScore();
+        subscriptions.scoreChanged(finishedMatch, TeamType.HOME_TEAM, 1);
+        matchManager.startMatch("Mexico", "Canada");
+
+        MatchChange restarted = next(changes);
+        assertEquals(MatchChange.Type.STARTED, restarted.type());
+        assertNotSame(finishedMatch, restarted.match());
+        assertEquals(0, restarted.homeScore());
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Given: A stuck listener. When: Many goals are scored. Then: The writer must not wait and the listener must get only the latest score")
+    void stuckListenerGetsCoalescedChanges() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(change -> {
+            changes.add(change);
+            stuck.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 16);
+        BlockingQueue<MatchChange> fastChanges = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(fastChanges::add, 16);
+
+        matchManager.startMatch("Mexico", "Canada");
+        assertTrue(stuck.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        }
+        MatchChange fastChange;
+        do {
+            fastChange = next(fastChanges);
+        } while (fastChange.homeScore() < 1000);
+        release.countDown();
+
+        assertEquals(MatchChange.Type.STARTED, next(changes).type());
+        MatchChange latest = next(changes);
+        assertEquals(MatchChange.Type.SCORE_CHANGED, latest.type());
+        assertEquals(1000, latest.homeScore());
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Given: A listener with a small capacity. When: More matches change while it is stuck. Then: It must get a resync in place of the dropped changes")
+    void overflowDeliversResync() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        Subscription subscription = subscriptions.subscribe(change -> {
+            changes.add(change);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2);
+
+        matchManager.startMatch("Mexico", "Canada");
+        next(changes);
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        matchManager.startMatch("Uruguay", "Italy");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscription.getDroppedChangeCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertSame(MatchChange.RESYNC, next(changes));
+        assertEquals("Uruguay", next(changes).match().homeTeam());
+        assertEquals(2, subscription.getDroppedChangeCount());
+    }
+
+    @Test
+    @DisplayName("Given: More stuck listeners than processors. When: A match is started. Then: Another listener must still receive the change")
+    void stuckListenersDoNotBlockOthers() throws InterruptedException {
+        int stuckCount = Math.max(2, Runtime.getRuntime().availableProcessors()) + 1;
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(stuckCount);
+        for (int i = 0; i < stuckCount; i++) {
+            subscriptions.subscribe(change -> {
+                stuck.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 16);
+        }
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(changes::add, 16);
+
+        try {
+            matchManager.startMatch("Mexico", "Canada");
+            assertTrue(stuck.await(10, TimeUnit.SECONDS));
+            assertEquals(MatchChange.Type.STARTED, next(changes).type());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Given: A score change that overtook the start of its match. When: Both are dispatched. Then: The match must be delivered as started first, and the late start dropped")
+    void scoreChangeBeforeStartIsDeliveredAsStart() throws InterruptedException {
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(changes::add, 16);
+        MatchManager otherManager = new MatchManager(new InMemoryMatchRepository(), new SimpleMatchKeyGenerator());
+        otherManager.startMatch("Mexico", "Canada");
+        Match match = otherManager.findMatch("Mexico", "Canada");
+
+        match.score().incrementHomeScore();
+        subscriptions.scoreChanged(match, TeamType.HOME_TEAM, 1);
+        MatchChange started = next(changes);
+        subscriptions.matchStarted(match);
+
+        assertEquals(MatchChange.Type.STARTED, started.type());
+        assertSame(match, started.match());
+        assertEquals(1, started.homeScore());
+        assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Given: A closed subscription and a failing listener. When: The board changes. Then: Only the other listeners must receive the change")
+    void closedAndFailingListeners() throws InterruptedException {
+        AtomicBoolean closedCalled = new AtomicBoolean();
+        Subscription closed = subscriptions.subscribe(change -> closedCalled.set(true), 16);
+        subscriptions.subscribe(change -> {
+            throw new IllegalStateException("Listener failure");
+        }, 16);
+        BlockingQueue<MatchChange> changes = new LinkedBlockingQueue<>();
+        subscriptions.subscribe(changes::add, 16);
+        closed.close();
+        assertEquals(2, subscriptions.getSubscriptionCount());
+
+        matchManager.startMatch("Mexico", "Canada");
+        matchManager.startMatch("Spain", "Brazil");
+
+        assertEquals(List.of("Mexico", "Spain"), List.of(next(changes).match().homeTeam(), next(changes).match().homeTeam()));
+        assertFalse(closedCalled.get());
+    }
+}
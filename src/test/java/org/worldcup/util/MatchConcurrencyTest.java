@@ -4,20 +4,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.worldcup.exceptions.MatchAlreadyStartedException;
+import org.worldcup.exceptions.TeamAlreadyInMatchException;
 import org.worldcup.manager.MatchManager;
 import org.worldcup.manager.ScoreManager;
+import org.worldcup.model.Match;
 import org.worldcup.model.TeamType;
 import org.worldcup.repository.InMemoryMatchRepository;
 import org.worldcup.repository.MatchRepository;
+import org.worldcup.repository.PackedKeyMatchRepository;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MatchConcurrencyTest {
@@ -102,6 +111,39 @@ class MatchConcurrencyTest {
         assertEquals("TeamConcurrency 100 - TeamParallel 100", scoreManager.getScore(homeTeam, awayTeam));
     }
 
+    @Test
+    @DisplayName("Concurrent goals and infraction adjustments")
+    void concurrentGoalsAndInfractionAdjustments() throws InterruptedException {
+        String homeTeam = "TeamGoal";
+        String awayTeam = "TeamVar";
+        matchManager.startMatch(homeTeam, awayTeam);
+
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        AtomicInteger failedAdjustments = new AtomicInteger();
+
+        // Every thread removes fewer goals than it scored itself, so no adjustment may fail
+        IntStream.range(0, 10).forEach(i -> executorService.submit(() -> {
+            IntStream.range(0, 1000).forEach(j -> {
+                scoreManager.updateScore(homeTeam, awayTeam, TeamType.HOME_TEAM);
+                scoreManager.updateScore(homeTeam, awayTeam, TeamType.AWAY_TEAM);
+            });
+            IntStream.range(0, 500).forEach(j -> {
+                try {
+                    scoreManager.adjustScoreForInfraction(homeTeam, awayTeam, TeamType.HOME_TEAM);
+                    scoreManager.adjustScoreForInfraction(homeTeam, awayTeam, TeamType.AWAY_TEAM);
+                } catch (IllegalStateException e) {
+                    failedAdjustments.incrementAndGet();
+                }
+            });
+        }));
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(0, failedAdjustments.get());
+        assertEquals("TeamGoal 5000 - TeamVar 5000", scoreManager.getScore(homeTeam, awayTeam));
+    }
+
     @Test
     @DisplayName("Concurrent match finish")
     void concurrentMatchFinish() throws InterruptedException {
@@ -159,4 +201,239 @@ class MatchConcurrencyTest {
         assertTrue(executorService.awaitTermination(2, TimeUnit.MINUTES));
         assertEquals(numberOfMatches, matchRepository.countMatches());
     }
+
+    @Test
+    @DisplayName("Concurrent starts and finishes of fixtures sharing teams")
+    void concurrentStartsAndFinishesWithSharedTeams() throws InterruptedException {
+        int numberOfTeams = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        IntStream.range(0, 5000).forEach(i -> executorService.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String homeTeam = "Team" + random.nextInt(numberOfTeams);
+            String awayTeam = "Team" + random.nextInt(numberOfTeams);
+            try {
+                if (random.nextBoolean()) {
+                    matchManager.startMatch(homeTeam, awayTeam);
+                } else {
+                    matchManager.finishMatch(homeTeam, awayTeam);
+                }
+            } catch (RuntimeException ignored) {
+            }
+        }));
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        Set<String> teamsInMatches = new HashSet<>();
+        for (Match match : matchRepository.getAllMatches()) {
+            assertTrue(teamsInMatches.add(match.homeTeam()), match.homeTeam() + " must not play two matches at once.");
+            assertTrue(teamsInMatches.add(match.awayTeam()), match.awayTeam() + " must not play two matches at once.");
+        }
+        for (int i = 0; i < numberOfTeams; i++) {
+            String team = "Team" + i;
+            assertEquals(teamsInMatches.contains(team), matchRepository.isTeamInAnyMatch(team));
+        }
+        assertEquals(matchRepository.countMatches(), matchRepository.getMatchesInSummaryOrder().size());
+        assertFalse(matchRepository.countMatches() > numberOfTeams / 2);
+    }
+
+    @Test
+    @DisplayName("Failing starts never block valid starts of their teams")
+    void failingStartsNeverBlockValidStarts() throws InterruptedException {
+        assertFailingStartsNeverBlockValidStarts(matchManager);
+        TeamRegistry teamRegistry = new TeamRegistry();
+        assertFailingStartsNeverBlockValidStarts(new MatchManager(new PackedKeyMatchRepository(teamRegistry),
+                new PackedMatchKeyGenerator(teamRegistry)));
+    }
+
+    /**
+     * Races starts that reserve a free team and then fail on a busy one against starts and finishes of a valid match
+     * for the free team. The valid starts must never see the reservation of a start that failed.
+     */
+    private void assertFailingStartsNeverBlockValidStarts(MatchManager matchManager) throws InterruptedException {
+        matchManager.startMatch("Busy", "Opponent");
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        // "Anchor" sorts before "Busy", so it is reserved first and released once "Busy" turns out to be taken
+        IntStream.range(0, 3).forEach(i -> executorService.submit(() -> {
+            while (running.get()) {
+                try {
+                    matchManager.startMatch("Anchor", "Busy");
+                    failures.add(new AssertionError("Busy was started twice"));
+                } catch (TeamAlreadyInMatchException ignored) {
+                }
+            }
+        }));
+        executorService.submit(() -> {
+            try {
+                for (int i = 0; i < 20_000; i++) {
+                    matchManager.startMatch("Anchor", "Valid");
+                    matchManager.finishMatch("Anchor", "Valid");
+                }
+            } catch (RuntimeException e) {
+                failures.add(e);
+            } finally {
+                running.set(false);
+            }
+        });
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(List.of(), List.copyOf(failures));
+        matchManager.finishMatch("Busy", "Opponent");
+    }
+
+    @Test
+    @DisplayName("Concurrent score updates and snapshot reads")
+    void concurrentScoreUpdatesAndSnapshotReads() throws InterruptedException {
+        IntStream.range(0, 10).forEach(i -> matchManager.startMatch("Home" + i, "Away" + i));
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 5).forEach(i -> executorService.submit(() -> IntStream.range(0, 2000).forEach(j -> {
+            int match = ThreadLocalRandom.current().nextInt(10);
+            scoreManager.updateScore("Home" + match, "Away" + match, TeamType.HOME_TEAM);
+        })));
+        IntStream.range(0, 5).forEach(i -> executorService.submit(() -> {
+            long lastVersion = -1;
+            for (int j = 0; j < 2000; j++) {
+                SummarySnapshot snapshot = summaryGenerator.getSnapshot();
+                if (snapshot.version() < lastVersion) {
+                    violations.add("Version went back to " + snapshot.version());
+                }
+                lastVersion = snapshot.version();
+                for (int k = 1; k < snapshot.entries().size(); k++) {
+                    if (snapshot.entries().get(k - 1).totalScore() < snapshot.entries().get(k).totalScore()) {
+                        violations.add("Unordered snapshot " + snapshot.lines());
+                    }
+                }
+            }
+        }));
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(List.of(), List.copyOf(violations));
+        int totalGoals = summaryGenerator.getSnapshot().entries().stream().mapToInt(SummarySnapshot.Entry::totalScore).sum();
+        assertEquals(10000, totalGoals);
+    }
+
+    @Test
+    @DisplayName("Concurrent score updates and summary reads on a large board never lose or repeat a match")
+    void summaryHoldsEveryLiveMatchOnceWhileScoresChange() throws InterruptedException {
+        int matchCount = 5000;
+        IntStream.range(0, matchCount).forEach(i -> matchManager.startMatch("Home" + i, "Away" + i));
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 6).forEach(i -> executorService.submit(() -> {
+            while (running.get()) {
+                int match = ThreadLocalRandom.current().nextInt(matchCount);
+                scoreManager.updateScore("Home" + match, "Away" + match, TeamType.values()[match % 2]);
+            }
+        }));
+        for (int i = 0; i < 300; i++) {
+            List<String> summary = summaryGenerator.getSummary();
+            Set<String> teams = new HashSet<>();
+            summary.forEach(line -> teams.add(line.substring(0, line.indexOf(' '))));
+            if (summary.size() != matchCount || teams.size() != matchCount) {
+                violations.add("size=" + summary.size() + " distinct=" + teams.size());
+            }
+        }
+        running.set(false);
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(List.of(), List.copyOf(violations));
+    }
+
+    @Test
+    @DisplayName("Concurrent goals and parallel and sequential captures hold the same matches in summary order")
+    void parallelCaptureMatchesSequentialCaptureWhileScoresChange() throws InterruptedException {
+        int matchCount = 5000;
+        IntStream.range(0, matchCount).forEach(i -> matchManager.startMatch("Home" + i, "Away" + i));
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        ExecutorService executorService = Executors.newFixedThreadPool(6);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 6).forEach(i -> executorService.submit(() -> {
+            while (running.get()) {
+                int match = ThreadLocalRandom.current().nextInt(matchCount);
+                scoreManager.updateScore("Home" + match, "Away" + match, TeamType.values()[match % 2]);
+            }
+        }));
+        for (int i = 0; i < 200; i++) {
+            checkCapture(SummarySnapshot.capture(matchRepository, 1), matchCount, "parallel", violations);
+            checkCapture(SummarySnapshot.capture(matchRepository, Integer.MAX_VALUE), matchCount, "sequential", violations);
+        }
+        running.set(false);
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(List.of(), List.copyOf(violations));
+        assertEquals(SummarySnapshot.capture(matchRepository, Integer.MAX_VALUE).entries(),
+                SummarySnapshot.capture(matchRepository, 1).entries());
+    }
+
+    private static void checkCapture(SummarySnapshot snapshot, int matchCount, String path, ConcurrentLinkedQueue<String> violations) {
+        List<SummarySnapshot.Entry> entries = snapshot.entries();
+        Set<String> teams = new HashSet<>();
+        entries.forEach(entry -> teams.add(entry.homeTeam()));
+        if (entries.size() != matchCount || teams.size() != matchCount) {
+            violations.add(path + " size=" + entries.size() + " distinct=" + teams.size());
+        }
+        for (int i = 1; i < entries.size(); i++) {
+            if (SummarySnapshot.SUMMARY_ORDER.compare(entries.get(i - 1), entries.get(i)) > 0) {
+                violations.add(path + " unsorted at " + i);
+                break;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent goals, infraction adjustments and top summary reads never repeat a match")
+    void topSummaryNeverRepeatsAMatchWhileScoresChange() throws InterruptedException {
+        int matchCount = 1000;
+        IntStream.range(0, matchCount).forEach(i -> matchManager.startMatch("Home" + i, "Away" + i));
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 6).forEach(i -> executorService.submit(() -> {
+            while (running.get()) {
+                int match = ThreadLocalRandom.current().nextInt(matchCount);
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    scoreManager.updateScore("Home" + match, "Away" + match, TeamType.HOME_TEAM);
+                } else {
+                    try {
+                        scoreManager.adjustScoreForInfraction("Home" + match, "Away" + match, TeamType.HOME_TEAM);
+                    } catch (IllegalStateException ignored) {
+                        // The score was already zero
+                    }
+                }
+            }
+        }));
+        for (int i = 0; i < 20_000; i++) {
+            List<String> top = summaryGenerator.getTopSummary(200);
+            Set<String> teams = new HashSet<>();
+            top.forEach(line -> teams.add(line.substring(0, line.indexOf(' '))));
+            if (top.size() != 200 || teams.size() != 200) {
+                violations.add("size=" + top.size() + " distinct=" + teams.size());
+            }
+        }
+        running.set(false);
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(List.of(), List.copyOf(violations));
+    }
 }
@@ -9,7 +9,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -121,4 +128,283 @@ class MatchSummaryGeneratorTest {
         assertEquals(scoreManager.getScore(homeTeamA, awayTeamB), summaryGenerator.getSummary().get(2));
     }
 
+    @Test
+    @DisplayName("Given: Matches whose scores change. When: Summarizing after each change. Then: The order follows the current total score, then the most recent start.")
+    void summaryFollowsScoreChanges(){
+        matchManager.startMatch("TeamA", "TeamB");
+        matchManager.startMatch("TeamC", "TeamD");
+        matchManager.startMatch("TeamE", "TeamF");
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        scoreManager.updateScore("TeamA", "TeamB", TeamType.AWAY_TEAM);
+        assertEquals(List.of("TeamA 0 - TeamB 1", "TeamE 0 - TeamF 0", "TeamC 0 - TeamD 0"), summaryGenerator.getSummary());
+
+        scoreManager.updateScore("TeamC", "TeamD", TeamType.HOME_TEAM);
+        assertEquals(List.of("TeamC 1 - TeamD 0", "TeamA 0 - TeamB 1", "TeamE 0 - TeamF 0"), summaryGenerator.getSummary());
+
+        scoreManager.adjustScoreForInfraction("TeamA", "TeamB", TeamType.AWAY_TEAM);
+        assertEquals(List.of("TeamC 1 - TeamD 0", "TeamE 0 - TeamF 0", "TeamA 0 - TeamB 0"), summaryGenerator.getSummary());
+
+        matchManager.finishMatch("TeamC", "TeamD");
+        assertEquals(List.of("TeamE 0 - TeamF 0", "TeamA 0 - TeamB 0"), summaryGenerator.getSummary());
+    }
+
+    @Test
+    @DisplayName("Given: An unchanged board. When: Reading the snapshot twice. Then: The same snapshot must be returned, and a change must raise its version.")
+    void snapshotIsSharedUntilTheBoardChanges(){
+        matchManager.startMatch("TeamA", "TeamB");
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        SummarySnapshot snapshot = summaryGenerator.getSnapshot();
+        assertSame(snapshot, summaryGenerator.getSnapshot());
+
+        new ScoreManager(matchManager).updateScore("TeamA", "TeamB", TeamType.HOME_TEAM);
+        SummarySnapshot changedSnapshot = summaryGenerator.getSnapshot();
+        assertTrue(changedSnapshot.version() > snapshot.version());
+        assertEquals(List.of("TeamA 0 - TeamB 0"), snapshot.lines());
+        assertEquals(List.of("TeamA 1 - TeamB 0"), changedSnapshot.lines());
+        assertEquals(1, changedSnapshot.entries().get(0).homeScore());
+    }
+
+    @Test
+    @DisplayName("Given: A publisher registered as a listener. When: The board changes. Then: The published snapshot must show the change right away.")
+    void publisherPublishesOnEachChange(){
+        SummaryPublisher summaryPublisher = new SummaryPublisher(matchRepository);
+        matchManager.addListener(summaryPublisher);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(summaryPublisher);
+
+        matchManager.startMatch("TeamA", "TeamB");
+        matchManager.startMatch("TeamC", "TeamD");
+        new ScoreManager(matchManager).updateScore("TeamA", "TeamB", TeamType.AWAY_TEAM);
+
+        assertEquals(List.of("TeamA 0 - TeamB 1", "TeamC 0 - TeamD 0"), summaryGenerator.getSummary());
+        assertEquals(matchRepository.getSummaryVersion(), summaryPublisher.snapshot().version());
+    }
+
+    @Test
+    @DisplayName("Given: A ticking publisher. When: The board changes. Then: The change must be published within a few ticks.")
+    void tickingPublisherCoalescesChanges() throws InterruptedException {
+        try (SummaryPublisher summaryPublisher = new SummaryPublisher(matchRepository, Duration.ofMillis(1))) {
+            matchManager.startMatch("TeamA", "TeamB");
+            new ScoreManager(matchManager).updateScore("TeamA", "TeamB", TeamType.HOME_TEAM);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (summaryPublisher.snapshot().version() != matchRepository.getSummaryVersion() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(List.of("TeamA 1 - TeamB 0"), summaryPublisher.snapshot().lines());
+        }
+    }
+
+    @Test
+    @DisplayName("Given: Publishers that are publishing. When: They are closed. Then: Close must return with the ticking thread stopped, and later changes must not be published.")
+    void closedPublishersStopPublishing() throws InterruptedException {
+        for (int i = 0; i < 2000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        Set<Thread> otherPublisherThreads = publisherThreads();
+        SummaryPublisher tickingPublisher = new SummaryPublisher(matchRepository, Duration.ofNanos(1));
+        Set<Thread> tickingThreads = publisherThreads();
+        tickingThreads.removeAll(otherPublisherThreads);
+        SummaryPublisher listeningPublisher = new SummaryPublisher(matchRepository);
+        matchManager.addListener(listeningPublisher);
+        for (int i = 0; i < 200; i++) {
+            scoreManager.updateScore("Home" + i, "Away" + i, TeamType.HOME_TEAM);
+        }
+
+        tickingPublisher.close();
+        listeningPublisher.close();
+        for (Thread thread : tickingThreads) {
+            // The executor terminates right before its thread exits
+            thread.join(1000);
+            assertFalse(thread.isAlive());
+        }
+        long tickingVersion = tickingPublisher.snapshot().version();
+        long listeningVersion = listeningPublisher.snapshot().version();
+        scoreManager.updateScore("Home0", "Away0", TeamType.HOME_TEAM);
+        Thread.sleep(10);
+
+        assertEquals(tickingVersion, tickingPublisher.snapshot().version());
+        assertEquals(listeningVersion, listeningPublisher.snapshot().version());
+    }
+
+    private static Set<Thread> publisherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("summary-publisher"))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Test
+    @DisplayName("Given: Matches with tied and different scores. When: Retrieving the top summary. Then: It must be the start of the full summary.")
+    void topSummaryIsPrefixOfFullSummary(){
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        for (int i = 0; i < 20; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            if (i % 3 == 0) {
+                scoreManager.updateScore("Home" + i, "Away" + i, TeamType.HOME_TEAM);
+            }
+        }
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        List<String> topSummary = summaryGenerator.getTopSummary(5);
+        List<String> summary = summaryGenerator.getSummary();
+
+        assertEquals(summary.subList(0, 5), topSummary);
+        assertEquals(summary.subList(0, 5), summaryGenerator.getTopSummary(5));
+        assertEquals(List.of("Home18 1 - Away18 0", "Home15 1 - Away15 0"), summaryGenerator.getTopSummary(2));
+    }
+
+    @Test
+    @DisplayName("Given: Fewer matches than requested. When: Retrieving the top summary. Then: All matches must be returned, and a negative count must be rejected.")
+    void topSummaryWithFewMatches(){
+        matchManager.startMatch("TeamA", "TeamB");
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        assertEquals(List.of("TeamA 0 - TeamB 0"), summaryGenerator.getTopSummary(10));
+        assertEquals(List.of(), summaryGenerator.getTopSummary(0));
+        assertThrows(IllegalArgumentException.class, () -> summaryGenerator.getTopSummary(-1));
+    }
+
+    @Test
+    @DisplayName("Given: A large board. When: Paging through the summary, before and after reading it whole. Then: The pages must add up to the full summary.")
+    void pagesAddUpToFullSummary(){
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        for (int i = 0; i < 1000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            if (i % 7 == 0) {
+                scoreManager.updateScore("Home" + i, "Away" + i, TeamType.AWAY_TEAM);
+            }
+        }
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        List<String> pagedBeforeSummary = readAllPages(summaryGenerator, 64);
+        List<String> summary = summaryGenerator.getSummary();
+        List<String> pagedAfterSummary = readAllPages(summaryGenerator, 64);
+
+        assertEquals(summary, pagedBeforeSummary);
+        assertEquals(summary, pagedAfterSummary);
+        assertEquals(summary, summaryGenerator.stream().toList());
+    }
+
+    @Test
+    @DisplayName("Given: A page has been read. When: A match on it scores before the next page. Then: The next page must continue after the cursor and report the new version.")
+    void nextPageContinuesAfterChange(){
+        for (int i = 0; i < 6; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        SummaryPage firstPage = summaryGenerator.page(null, 3);
+        assertEquals(List.of("Home5 0 - Away5 0", "Home4 0 - Away4 0", "Home3 0 - Away3 0"), firstPage.lines());
+
+        new ScoreManager(matchManager).updateScore("Home4", "Away4", TeamType.HOME_TEAM);
+        SummaryPage secondPage = summaryGenerator.page(firstPage.nextCursor(), 3);
+
+        assertEquals(List.of("Home2 0 - Away2 0", "Home1 0 - Away1 0", "Home0 0 - Away0 0"), secondPage.lines());
+        assertTrue(secondPage.version() > firstPage.version());
+        assertFalse(secondPage.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> summaryGenerator.page(null, 0));
+    }
+
+    @Test
+    @DisplayName("Given: A cursor. When: The board changes many times before the next page. Then: The next page must still continue after the cursor.")
+    void cursorsDoNotExpire(){
+        for (int i = 0; i < 4; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+        }
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        SummaryCursor cursor = summaryGenerator.page(null, 2).nextCursor();
+        for (int i = 0; i < 20; i++) {
+            scoreManager.updateScore("Home3", "Away3", TeamType.HOME_TEAM);
+            summaryGenerator.page(null, 2);
+        }
+
+        SummaryPage page = summaryGenerator.page(cursor, 2);
+        assertEquals(List.of("Home1 0 - Away1 0", "Home0 0 - Away0 0"), page.lines());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    @DisplayName("Given: A client copy of the summary. When: Matches are scored, finished and started. Then: The delta must hold only the changed matches and the new version.")
+    void changesSinceVersion(){
+        matchManager.startMatch("Mexico", "Canada");
+        matchManager.startMatch("Spain", "Brazil");
+        matchManager.startMatch("Germany", "France");
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+        long version = summaryGenerator.getSnapshot().version();
+
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        scoreManager.updateScore("Mexico", "Canada", TeamType.AWAY_TEAM);
+        matchManager.finishMatch("Spain", "Brazil");
+        matchManager.startMatch("Uruguay", "Italy");
+        SummaryDelta delta = summaryGenerator.changesSince(version);
+
+        assertFalse(delta.full());
+        assertEquals(version, delta.sinceVersion());
+        assertEquals(matchRepository.getSummaryVersion(), delta.version());
+        assertEquals(List.of("Mexico 1 - Canada 1", "Uruguay 0 - Italy 0"), delta.changed().stream().map(SummarySnapshot.Entry::toString).toList());
+        assertEquals(List.of(new SummaryDelta.Removal("Spain", "Brazil", 2)), delta.removed());
+
+        SummaryDelta unchanged = summaryGenerator.changesSince(delta.version());
+        assertEquals(delta.version(), unchanged.version());
+        assertTrue(unchanged.changed().isEmpty());
+        assertTrue(unchanged.removed().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given: A version older than the change log. When: Asking for the changes since it. Then: The delta must hold the whole summary.")
+    void changesSinceTrimmedVersion(){
+        matchManager.startMatch("Mexico", "Canada");
+        matchManager.startMatch("Spain", "Brazil");
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        for (int i = 0; i < 5000; i++) {
+            scoreManager.updateScore("Mexico", "Canada", TeamType.HOME_TEAM);
+        }
+        MatchSummaryGenerator summaryGenerator = new MatchSummaryGenerator(matchRepository);
+
+        SummaryDelta delta = summaryGenerator.changesSince(0);
+        assertTrue(delta.full());
+        assertEquals(matchRepository.getSummaryVersion(), delta.version());
+        assertEquals(summaryGenerator.getSummary(), delta.changed().stream().map(SummarySnapshot.Entry::toString).toList());
+        assertTrue(summaryGenerator.changesSince(delta.version() + 1).full());
+        assertFalse(summaryGenerator.changesSince(delta.version() - 10).full());
+    }
+
+    private static List<String> readAllPages(MatchSummaryGenerator summaryGenerator, int limit) {
+        List<String> lines = new ArrayList<>();
+        SummaryPage page = summaryGenerator.page(null, limit);
+        lines.addAll(page.lines());
+        while (page.hasNext()) {
+            page = summaryGenerator.page(page.nextCursor(), limit);
+            assertTrue(page.lines().size() <= limit);
+            lines.addAll(page.lines());
+        }
+        return lines;
+    }
+
+    @Test
+    @DisplayName("Given: A large board with many tied scores. When: The summary is captured in parallel. Then: It must equal the sequential summary")
+    void parallelSummaryMatchesSequentialSummary() {
+        ScoreManager scoreManager = new ScoreManager(matchManager);
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            matchManager.startMatch("Home" + i, "Away" + i);
+            for (int goals = random.nextInt(3); goals > 0; goals--) {
+                scoreManager.updateScore("Home" + i, "Away" + i, random.nextBoolean() ? TeamType.HOME_TEAM : TeamType.AWAY_TEAM);
+            }
+        }
+        MatchSummaryGenerator sequentialGenerator = new MatchSummaryGenerator(matchRepository);
+        sequentialGenerator.setParallelThreshold(Integer.MAX_VALUE);
+        MatchSummaryGenerator parallelGenerator = new MatchSummaryGenerator(matchRepository);
+        parallelGenerator.setParallelThreshold(1);
+
+        List<String> summary = sequentialGenerator.getSummary();
+        assertEquals(20_000, summary.size());
+        assertEquals(summary, parallelGenerator.getSummary());
+        assertEquals(sequentialGenerator.getSnapshot().entries(), parallelGenerator.getSnapshot().entries());
+        assertThrows(IllegalArgumentException.class, () -> parallelGenerator.setParallelThreshold(0));
+    }
 }